@@ -0,0 +1,159 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaBrokerProfile;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaTopic;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p> Initializes and configures a KRaft broker, or a cluster of them, that
+ * runs inside the JVM of the Application with the embedded support of Spring
+ * Kafka Test, as an alternative to a Docker Container when Docker is not
+ * available or too slow. Supports the broker, Topic and cluster properties
+ * of the Container, and registers the same Kafka Connection Details, so that
+ * Applications work unchanged.
+ *
+ * <p> See the project README for configuration details.
+ *
+ * @author Quinn Andrews
+ */
+@ConditionalOnProperty(name="spring.local.kafka.engaged",
+                       havingValue="true",
+                       matchIfMissing = true)
+@Configuration
+public class EmbeddedKafkaConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedKafkaConfig.class);
+
+    // the System property the broker publishes its address in, instead of the default
+    // spring.kafka.bootstrap-servers, which would outlive the broker and, since System
+    // properties take precedence, point every later Application Context in the JVM at it
+    private static final String BROKER_LIST_PROPERTY = "spring.local.kafka.embedded.brokers";
+
+    private final Integer port;
+    private final Integer clusterBrokers;
+    private final LocalKafkaBrokerProfile brokerProfile;
+    private final Environment environment;
+
+    /**
+     * Constructs an instance of this Configuration Class with the given properties.
+     *
+     * @param port           The port of the broker (optional).
+     * @param clusterBrokers The number of brokers to run as a cluster (optional).
+     * @param brokerProfile  The predefined set of broker properties to apply (optional).
+     * @param environment    The Environment, used to bind broker properties and Topics.
+     */
+    public EmbeddedKafkaConfig(@Value("${spring.local.kafka.embedded.port:#{null}}")
+                               final Integer port,
+                               @Value("${spring.local.kafka.cluster.brokers:#{1}}")
+                               final Integer clusterBrokers,
+                               @Value("${spring.local.kafka.broker.profile:DEFAULT}")
+                               final LocalKafkaBrokerProfile brokerProfile,
+                               final Environment environment) {
+        this.port = port;
+        this.clusterBrokers = clusterBrokers;
+        this.brokerProfile = brokerProfile;
+        this.environment = environment;
+    }
+
+    /**
+     * Returns an embedded KRaft broker with the given configuration, started,
+     * and with the configured Topics created. Destroyed with the Application
+     * Context.
+     *
+     * @return EmbeddedKafkaKraftBroker
+     */
+    @Bean
+    public EmbeddedKafkaKraftBroker embeddedKafkaBroker() {
+        final var begin = System.nanoTime();
+        final var broker = new EmbeddedKafkaKraftBroker(clusterBrokers, 1) {
+            @Override
+            public void destroy() {
+                final var brokers = getBrokersAsString();
+                super.destroy();
+                clearProperty(BROKER_LIST_PROPERTY, brokers);
+                clearProperty(SPRING_EMBEDDED_KAFKA_BROKERS, brokers);
+            }
+        };
+        broker.brokerListProperty(BROKER_LIST_PROPERTY);
+        final var brokerProperties = new LinkedHashMap<>(brokerProfile.getProperties());
+        if (clusterBrokers > 1) {
+            brokerProperties.putAll(KafkaContainerConfig.clusterReplicationProperties(clusterBrokers));
+        }
+        brokerProperties.putAll(Binder.get(environment)
+                .bind("spring.local.kafka.broker.properties", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of()));
+        broker.brokerProperties(brokerProperties);
+        Optional.ofNullable(port).ifPresent(broker::kafkaPorts);
+        broker.afterPropertiesSet();
+        final var topics = Binder.get(environment)
+                .bind("spring.local.kafka.topics", Bindable.listOf(LocalKafkaTopic.class))
+                .orElse(List.of());
+        if (!topics.isEmpty()) {
+            broker.addTopics(topics.stream().map(LocalKafkaTopic::toNewTopic).toArray(NewTopic[]::new));
+        }
+        logBanner(broker, Duration.ofNanos(System.nanoTime() - begin));
+        return broker;
+    }
+
+    /**
+     * Returns the Connection Details of the embedded broker, which Spring Boot
+     * uses to configure Kafka, as it does for the Container.
+     *
+     * @param embeddedKafkaBroker The embedded broker.
+     * @return KafkaConnectionDetails
+     */
+    @Bean
+    public KafkaConnectionDetails embeddedKafkaConnectionDetails(final EmbeddedKafkaKraftBroker embeddedKafkaBroker) {
+        return () -> List.of(embeddedKafkaBroker.getBrokersAsString().split(","));
+    }
+
+    private static void clearProperty(final String name, final String brokers) {
+        // left alone if another embedded broker in the JVM has set it since
+        if (brokers.equals(System.getProperty(name))) {
+            System.clearProperty(name);
+        }
+    }
+
+    private void logBanner(final EmbeddedKafkaKraftBroker broker, final Duration startup) {
+        logger.info(MessageFormat.format("""
+
+
+                        *************************************************************************************
+                        |+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|
+
+                            Running embedded Kafka for development and testing.
+
+                            Mode: KRaft
+                            Broker Profile: {1}
+                            Brokers: {2}
+                            Startup: {3} ms
+
+                            Kafka Bootstrap Server URL: {0}
+
+                        |+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|+|
+                        *************************************************************************************
+                        """,
+                broker.getBrokersAsString(),
+                brokerProfile.name().toLowerCase(),
+                String.valueOf(clusterBrokers),
+                String.valueOf(startup.toMillis())));
+    }
+}
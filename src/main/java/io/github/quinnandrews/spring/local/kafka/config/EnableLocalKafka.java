@@ -12,6 +12,11 @@ import java.lang.annotation.*;
 @Target({ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-@Import(KafkaContainerConfig.class)
+@Import({LocalKafkaRuntimeSelector.class,
+         LocalKafkaLoadGeneratorConfig.class,
+         LocalKafkaMetricsConfig.class,
+         LocalKafkaSeedConfig.class,
+         LocalKafkaNamespaceConfig.class,
+         LocalKafkaResetConfig.class})
 public @interface EnableLocalKafka {
 }
@@ -0,0 +1,101 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.metrics.LocalKafkaMetricsCollector;
+import io.github.quinnandrews.spring.local.kafka.metrics.LocalKafkaMetricsSnapshot;
+import io.github.quinnandrews.spring.local.kafka.metrics.LocalKafkaMetricsSnapshot.RequestLatency;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * <p> Publishes the metrics collected from the local broker as Micrometer
+ * Gauges: the lag of each Consumer Group by Topic, the size of each Topic,
+ * the bytes written to and read from the broker per second, the time taken
+ * to handle requests, and the round trip of a metadata request. Gauges for
+ * Consumer Groups and Topics are registered as they appear.
+ *
+ * @author Quinn Andrews
+ */
+public class KafkaBrokerMetrics implements MeterBinder {
+
+    public static final String CONSUMER_LAG = "spring.local.kafka.consumer.lag";
+    public static final String TOPIC_SIZE = "spring.local.kafka.topic.size";
+    public static final String BYTES_IN = "spring.local.kafka.broker.bytes.in";
+    public static final String BYTES_OUT = "spring.local.kafka.broker.bytes.out";
+    public static final String REQUEST_LATENCY = "spring.local.kafka.broker.request.latency";
+    public static final String ADMIN_LATENCY = "spring.local.kafka.admin.latency";
+
+    private final LocalKafkaMetricsCollector collector;
+
+    /**
+     * Constructs an instance for the given collector.
+     *
+     * @param collector The collector of the metrics to publish.
+     */
+    public KafkaBrokerMetrics(final LocalKafkaMetricsCollector collector) {
+        this.collector = collector;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        gauge(registry, ADMIN_LATENCY, "Round trip of a metadata request to the local broker", "milliseconds",
+                LocalKafkaMetricsSnapshot::adminLatencyMillis);
+        gauge(registry, BYTES_IN, "Bytes written to the local broker per second", "bytes",
+                LocalKafkaMetricsSnapshot::bytesInPerSecond);
+        gauge(registry, BYTES_OUT, "Bytes read from the local broker per second", "bytes",
+                LocalKafkaMetricsSnapshot::bytesOutPerSecond);
+        bindDynamic(registry, collector.getSnapshot());
+        collector.addListener(snapshot -> bindDynamic(registry, snapshot));
+    }
+
+    private void bindDynamic(final MeterRegistry registry, final LocalKafkaMetricsSnapshot snapshot) {
+        snapshot.consumerLag().forEach((group, topics) -> topics.keySet().forEach(topic ->
+                Gauge.builder(CONSUMER_LAG, collector, c -> c.getSnapshot().consumerLag()
+                                .getOrDefault(group, Map.of())
+                                .getOrDefault(topic, 0L))
+                        .description("Records not yet consumed by a Consumer Group of the local broker")
+                        .baseUnit("records")
+                        .tag("group", group)
+                        .tag("topic", topic)
+                        .register(registry)));
+        snapshot.topicSizes().keySet().forEach(topic ->
+                Gauge.builder(TOPIC_SIZE, collector, c -> c.getSnapshot().topicSizes().getOrDefault(topic, 0L))
+                        .description("Bytes on disk of a Topic of the local broker, across all replicas")
+                        .baseUnit("bytes")
+                        .tag("topic", topic)
+                        .register(registry));
+        snapshot.requestLatency().keySet().forEach(request -> {
+            requestLatency(registry, request, "mean", RequestLatency::meanMillis);
+            requestLatency(registry, request, "p99", RequestLatency::p99Millis);
+        });
+    }
+
+    private void requestLatency(final MeterRegistry registry,
+                                final String request,
+                                final String statistic,
+                                final Function<RequestLatency, Double> value) {
+        Gauge.builder(REQUEST_LATENCY, collector, c -> Optional.ofNullable(c.getSnapshot().requestLatency().get(request))
+                        .map(value)
+                        .orElse(Double.NaN))
+                .description("Time taken by the local broker to handle requests")
+                .baseUnit("milliseconds")
+                .tag("request", request)
+                .tag("statistic", statistic)
+                .register(registry);
+    }
+
+    private void gauge(final MeterRegistry registry,
+                       final String name,
+                       final String description,
+                       final String baseUnit,
+                       final Function<LocalKafkaMetricsSnapshot, Double> value) {
+        Gauge.builder(name, collector, c -> Optional.ofNullable(value.apply(c.getSnapshot())).orElse(Double.NaN))
+                .description(description)
+                .baseUnit(baseUnit)
+                .register(registry);
+    }
+}
@@ -1,22 +1,55 @@
 package io.github.quinnandrews.spring.local.kafka.config;
 
 import com.github.dockerjava.api.model.ExposedPort;
-import com.github.dockerjava.api.model.HostConfig;
 import com.github.dockerjava.api.model.PortBinding;
 import com.github.dockerjava.api.model.Ports;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaBrokerProfile;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer.Mode;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer.ShutdownPolicy;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainerRegistry;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaDataDirectory;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaNetworkConditions;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaNetworkProxy;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaResourceProfile;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaSchemaRegistry;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaSnapshot;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaTopic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
 import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.Network;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
 import org.testcontainers.utility.DockerImageName;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
 
 /**
  * <p> Initializes and configures a module from Testcontainers that runs
@@ -35,68 +68,459 @@ import java.util.Optional;
 public class KafkaContainerConfig {
 
     public static final String KAFKA_DEFAULT_IMAGE = "confluentinc/cp-kafka:5.4.3";
+    public static final String KAFKA_KRAFT_DEFAULT_IMAGE = "confluentinc/cp-kafka:7.4.0";
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaContainerConfig.class);
 
+    private static final String PROPERTY_PREFIX = "spring.local.kafka.";
+
+    private static final String BROKER_NETWORK_ALIAS = "kafka-";
+
+    // the properties that shape the Container, as opposed to those of the clients of
+    // the broker, such as the Load Generator, seeding, metrics, namespacing and resetting,
+    // which may differ between Application Contexts that share a Container
+    private static final List<String> CONTAINER_PROPERTIES = List.of(
+            "mode", "cluster.", "topics", "container.", "broker.", "network.", "schema-registry.");
+
+    // the properties baked into a snapshot, as opposed to those applied to each Container
+    // started from it, such as resource limits and port bindings; a committed Image keeps
+    // the environment of the Container it was taken from, so the properties that set JVM,
+    // JMX and JFR options through the environment are baked in as well
+    static final List<String> SNAPSHOT_PROPERTIES = List.of(
+            "mode", "cluster.brokers", "topics", "broker.profile", "broker.properties",
+            "broker.heap-opts", "broker.jvm-performance-opts", "broker.jmx.", "broker.jfr.",
+            "container.resources.profile");
+
+    private final Mode mode;
     private final String containerImage;
     private final String containerName;
     private final Integer containerPort;
     private final Boolean followContainerLog;
+    private final Boolean reuseContainer;
+    private final Boolean wipeReusedContainer;
+    private final ShutdownPolicy reusedContainerShutdown;
+    private final Boolean shareContainer;
+    private final Boolean asyncStartup;
+    private final Boolean readinessProbe;
+    private final LocalKafkaBrokerProfile brokerProfile;
+    private final Boolean tmpfs;
+    private final DataSize tmpfsSize;
+    private final String dataDirectory;
+    private final String dataArchive;
+    private final LocalKafkaResourceProfile resourceProfile;
+    private final Double cpus;
+    private final DataSize memory;
+    private final String heapOpts;
+    private final String jvmPerformanceOpts;
+    private final Integer clusterBrokers;
+    private final Boolean snapshot;
+    private final Boolean network;
+    private final String networkImage;
+    private final Boolean jmx;
+    private final Integer jmxPort;
+    private final Boolean flightRecording;
+    private final String flightRecordingSettings;
+    private final String flightRecordingDirectory;
+    private final Boolean schemaRegistry;
+    private final String schemaRegistryImage;
+    private final ConfigurableEnvironment environment;
 
     /**
      * Constructs an instance of this Configuration Class with the given properties.
      *
+     * @param mode                Whether to run the broker with ZooKeeper or in KRaft mode (optional).
      * @param containerImage      The Docker Image to use as the Container (optional).
      * @param containerName       The name to use for the Docker Container when started.
      * @param containerPort       The port on the Container that should map to Kafka (optional).
      * @param followContainerLog  Whether to log the output produced by the Container's logs (optional).
+     * @param reuseContainer      Whether to attach to an already running, matching Container (optional).
+     * @param wipeReusedContainer Whether to delete Topics and Consumer Groups of a reused Container (optional).
+     * @param reusedContainerShutdown What to do with a reused Container when the Application stops (optional).
+     * @param shareContainer      Whether to share one Container per configuration across Application Contexts (optional).
+     * @param asyncStartup        Whether to start the Container on a background thread (optional).
+     * @param readinessProbe      Whether to probe the broker with a metadata request and a Topic before it is ready (optional).
+     * @param brokerProfile       The predefined set of broker properties to apply (optional).
+     * @param tmpfs               Whether to keep the data of the broker in memory (optional).
+     * @param tmpfsSize           The size limit of each in-memory data directory (optional).
+     * @param dataDirectory       The directory of the host to keep the data of the broker in (optional).
+     * @param dataArchive         An archive to restore the data directory from when it is empty (optional).
+     * @param resourceProfile     The predefined resource limits and JVM options to apply (optional).
+     * @param cpus                The number of CPUs the Container may use (optional).
+     * @param memory              The memory limit of the Container (optional).
+     * @param heapOpts            The heap options of the broker JVM (optional).
+     * @param jvmPerformanceOpts  The other JVM options of the broker JVM (optional).
+     * @param clusterBrokers      The number of brokers to run as a cluster (optional).
+     * @param snapshot            Whether to start from, or take, a snapshot of a ready broker (optional).
+     * @param network             Whether to route clients through a proxy that simulates network conditions (optional).
+     * @param networkImage        The Docker Image of the proxy (optional).
+     * @param jmx                 Whether to expose the JMX port of the broker (optional).
+     * @param jmxPort             The port of the host to expose JMX on (optional).
+     * @param flightRecording     Whether to record a Java Flight Recording of the broker JVM (optional).
+     * @param flightRecordingSettings  The JFR settings to record with (optional).
+     * @param flightRecordingDirectory The directory of the host to copy the recording to (optional).
+     * @param schemaRegistry      Whether to run a Schema Registry next to the broker (optional).
+     * @param schemaRegistryImage The Docker Image of the Schema Registry (optional).
+     * @param environment         The Environment, used to bind broker properties, Topics and network conditions,
+     *                            and to identify the configuration of a shared Container.
      */
-    public KafkaContainerConfig(@Value("${spring.local.kafka.container.image:#{null}}")
+    public KafkaContainerConfig(@Value("${spring.local.kafka.mode:ZOOKEEPER}")
+                                final Mode mode,
+                                @Value("${spring.local.kafka.container.image:#{null}}")
                                 final String containerImage,
                                 @Value("${spring.local.kafka.container.name:#{null}}")
                                 final String containerName,
                                 @Value("${spring.local.kafka.container.port:#{null}}")
                                 final Integer containerPort,
                                 @Value("${spring.local.kafka.container.log.follow:#{false}}")
-                                final Boolean followContainerLog) {
+                                final Boolean followContainerLog,
+                                @Value("${spring.local.kafka.container.reuse.enabled:#{false}}")
+                                final Boolean reuseContainer,
+                                @Value("${spring.local.kafka.container.reuse.wipe:#{true}}")
+                                final Boolean wipeReusedContainer,
+                                @Value("${spring.local.kafka.container.reuse.shutdown:KEEP}")
+                                final ShutdownPolicy reusedContainerShutdown,
+                                @Value("${spring.local.kafka.container.shared:#{false}}")
+                                final Boolean shareContainer,
+                                @Value("${spring.local.kafka.container.startup.async:#{false}}")
+                                final Boolean asyncStartup,
+                                @Value("${spring.local.kafka.container.startup.probe:#{true}}")
+                                final Boolean readinessProbe,
+                                @Value("${spring.local.kafka.broker.profile:DEFAULT}")
+                                final LocalKafkaBrokerProfile brokerProfile,
+                                @Value("${spring.local.kafka.container.tmpfs.enabled:#{false}}")
+                                final Boolean tmpfs,
+                                @Value("${spring.local.kafka.container.tmpfs.size:512MB}")
+                                final DataSize tmpfsSize,
+                                @Value("${spring.local.kafka.container.data-dir:#{null}}")
+                                final String dataDirectory,
+                                @Value("${spring.local.kafka.container.data-archive:#{null}}")
+                                final String dataArchive,
+                                @Value("${spring.local.kafka.container.resources.profile:DEFAULT}")
+                                final LocalKafkaResourceProfile resourceProfile,
+                                @Value("${spring.local.kafka.container.resources.cpus:#{null}}")
+                                final Double cpus,
+                                @Value("${spring.local.kafka.container.resources.memory:#{null}}")
+                                final DataSize memory,
+                                @Value("${spring.local.kafka.broker.heap-opts:#{null}}")
+                                final String heapOpts,
+                                @Value("${spring.local.kafka.broker.jvm-performance-opts:#{null}}")
+                                final String jvmPerformanceOpts,
+                                @Value("${spring.local.kafka.cluster.brokers:#{1}}")
+                                final Integer clusterBrokers,
+                                @Value("${spring.local.kafka.container.snapshot.enabled:#{false}}")
+                                final Boolean snapshot,
+                                @Value("${spring.local.kafka.network.enabled:#{false}}")
+                                final Boolean network,
+                                @Value("${spring.local.kafka.network.image:#{null}}")
+                                final String networkImage,
+                                @Value("${spring.local.kafka.broker.jmx.enabled:#{false}}")
+                                final Boolean jmx,
+                                @Value("${spring.local.kafka.broker.jmx.port:#{null}}")
+                                final Integer jmxPort,
+                                @Value("${spring.local.kafka.broker.jfr.enabled:#{false}}")
+                                final Boolean flightRecording,
+                                @Value("${spring.local.kafka.broker.jfr.settings:profile}")
+                                final String flightRecordingSettings,
+                                @Value("${spring.local.kafka.broker.jfr.directory:target/jfr}")
+                                final String flightRecordingDirectory,
+                                @Value("${spring.local.kafka.schema-registry.enabled:#{false}}")
+                                final Boolean schemaRegistry,
+                                @Value("${spring.local.kafka.schema-registry.image:#{null}}")
+                                final String schemaRegistryImage,
+                                final ConfigurableEnvironment environment) {
+        this.mode = mode;
         this.containerImage = containerImage;
         this.containerName = containerName;
         this.containerPort = containerPort;
         this.followContainerLog = followContainerLog;
+        this.reuseContainer = reuseContainer;
+        this.wipeReusedContainer = wipeReusedContainer;
+        this.reusedContainerShutdown = reusedContainerShutdown;
+        this.shareContainer = shareContainer;
+        this.asyncStartup = asyncStartup;
+        this.readinessProbe = readinessProbe;
+        this.brokerProfile = brokerProfile;
+        this.tmpfs = tmpfs;
+        this.tmpfsSize = tmpfsSize;
+        this.dataDirectory = dataDirectory;
+        this.dataArchive = dataArchive;
+        this.resourceProfile = resourceProfile;
+        this.cpus = cpus;
+        this.memory = memory;
+        this.heapOpts = heapOpts;
+        this.jvmPerformanceOpts = jvmPerformanceOpts;
+        this.clusterBrokers = clusterBrokers;
+        this.snapshot = snapshot;
+        this.network = network;
+        this.networkImage = networkImage;
+        this.jmx = jmx;
+        this.jmxPort = jmxPort;
+        this.flightRecording = flightRecording;
+        this.flightRecordingSettings = flightRecordingSettings;
+        this.flightRecordingDirectory = flightRecordingDirectory;
+        this.schemaRegistry = schemaRegistry;
+        this.schemaRegistryImage = schemaRegistryImage;
+        this.environment = environment;
     }
 
     /**
      * Returns a Testcontainers Bean that runs Kafka inside a Docker Container
-     * with the given configuration.
+     * with the given configuration. When a Schema Registry runs next to the
+     * broker, its URL is registered as {@code spring.local.kafka.schema-registry.url}
+     * and as {@code spring.kafka.properties.schema.registry.url}, which Spring
+     * Boot passes to every serializer and deserializer.
      *
-     * @return KafkaContainer
+     * @return LocalKafkaContainer
      */
     @Bean
     @ServiceConnection
-    public KafkaContainer kafkaContainer() {
-        final var container = new KafkaContainer(
-                DockerImageName.parse(Optional.ofNullable(containerImage)
-                        .orElse(KAFKA_DEFAULT_IMAGE))
-        );
-        Optional.ofNullable(containerPort).ifPresent(cp ->
-                container.withCreateContainerCmdModifier(cmd -> cmd
-                        .withName(containerName)
-                        .withHostConfig(
-                                new HostConfig().withPortBindings(
-                                        new PortBinding(
-                                                Ports.Binding.bindPort(cp),
-                                                new ExposedPort(KafkaContainer.KAFKA_PORT)),
-                                        new PortBinding(
-                                                Ports.Binding.empty(),
-                                                new ExposedPort(9092)),
-                                        new PortBinding(
-                                                Ports.Binding.empty(),
-                                                new ExposedPort(KafkaContainer.ZOOKEEPER_PORT))
-                                ))));
+    public LocalKafkaContainer kafkaContainer() {
+        final LocalKafkaContainer container;
+        if (shareContainer) {
+            container = LocalKafkaContainerRegistry.getInstance()
+                    .acquire(configurationKey(environment, CONTAINER_PROPERTIES), this::createContainer);
+        } else {
+            container = createContainer();
+            container.start();
+        }
+        Optional.ofNullable(container.getSchemaRegistry())
+                .map(SchemaRegistryPropertySource::new)
+                .ifPresent(environment.getPropertySources()::addFirst);
+        container.getStartup().thenAccept(this::logBanner);
+        return container;
+    }
+
+    /**
+     * Returns a Bean that waits for a Container started on a background thread
+     * to become ready once all singletons have been instantiated, so that the
+     * broker starts up while the rest of the Application Context is created,
+     * but is ready before Kafka Listeners start and Topics are created.
+     *
+     * @param kafkaContainer The Container to wait for.
+     * @return SmartInitializingSingleton
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.local.kafka.container.startup.async",
+                           havingValue = "true")
+    public SmartInitializingSingleton kafkaContainerStartupBarrier(final LocalKafkaContainer kafkaContainer) {
+        return kafkaContainer::awaitStartup;
+    }
+
+    /**
+     * Returns the Connection Details of a cluster of brokers, which list the
+     * address of each broker separately, as Spring Boot expects, rather than
+     * as the single comma separated value returned by the Container. Takes
+     * precedence over the Connection Details derived from the Container.
+     *
+     * @param kafkaContainer The Container running the first broker of the cluster.
+     * @return KafkaConnectionDetails
+     */
+    @Bean
+    @Primary
+    @ConditionalOnExpression("${spring.local.kafka.cluster.brokers:1} > 1")
+    public KafkaConnectionDetails kafkaClusterConnectionDetails(final LocalKafkaContainer kafkaContainer) {
+        return () -> List.of(kafkaContainer.getBootstrapServers().split(","));
+    }
+
+    /**
+     * Publishes the startup timings of the Container through Micrometer,
+     * when Micrometer is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class StartupMetricsConfig {
+
+        /**
+         * Returns a Bean that binds the startup timings of the Container
+         * to any MeterRegistry in the Application Context.
+         *
+         * @param kafkaContainer The Container whose startup is measured.
+         * @return KafkaContainerStartupMetrics
+         */
+        @Bean
+        public KafkaContainerStartupMetrics kafkaContainerStartupMetrics(final LocalKafkaContainer kafkaContainer) {
+            return new KafkaContainerStartupMetrics(kafkaContainer);
+        }
+    }
+
+    private LocalKafkaContainer createContainer() {
+        if (clusterBrokers < 1) {
+            throw new IllegalArgumentException("spring.local.kafka.cluster.brokers must be at least 1.");
+        }
+        if (clusterBrokers > 1 && reuseContainer) {
+            throw new IllegalStateException("A reusable Container cannot run more than one broker.");
+        }
+        if (snapshot && (clusterBrokers > 1 || tmpfs)) {
+            throw new IllegalStateException("A snapshot cannot be taken of more than one broker, or of in-memory data.");
+        }
+        if (dataDirectory != null && (clusterBrokers > 1 || tmpfs || snapshot)) {
+            throw new IllegalStateException(
+                    "A data directory cannot be used with more than one broker, in-memory data or a snapshot.");
+        }
+        if (schemaRegistry && (reuseContainer || asyncStartup)) {
+            throw new IllegalStateException(
+                    "A Schema Registry cannot run next to a reusable or asynchronously started Container.");
+        }
+        if (network && (clusterBrokers > 1 || reuseContainer || asyncStartup)) {
+            throw new IllegalStateException(
+                    "Network conditions cannot be simulated for more than one broker, or for a reusable or asynchronously started Container.");
+        }
+        final var localKafkaSnapshot = snapshot
+                ? LocalKafkaSnapshot.of(image(), configurationKey(environment, SNAPSHOT_PROPERTIES))
+                : null;
+        final var container = createBroker(localKafkaSnapshot != null && localKafkaSnapshot.isPresent()
+                ? localKafkaSnapshot.getImage()
+                : image());
+        if (localKafkaSnapshot != null) {
+            container.withSnapshot(localKafkaSnapshot);
+        }
+        Optional.ofNullable(containerPort)
+                .or(() -> asyncStartup ? Optional.of(findFreePort()) : Optional.empty())
+                .ifPresent(cp -> {
+                    final var portBindings = new ArrayList<PortBinding>();
+                    portBindings.add(new PortBinding(
+                            Ports.Binding.bindPort(cp),
+                            new ExposedPort(KafkaContainer.KAFKA_PORT)));
+                    portBindings.add(new PortBinding(
+                            Ports.Binding.empty(),
+                            new ExposedPort(9092)));
+                    if (mode == Mode.ZOOKEEPER) {
+                        portBindings.add(new PortBinding(
+                                Ports.Binding.empty(),
+                                new ExposedPort(KafkaContainer.ZOOKEEPER_PORT)));
+                    }
+                    container.withFixedKafkaPort(cp)
+                            .withCreateContainerCmdModifier(cmd -> cmd
+                                    .withName(containerName)
+                                    .getHostConfig().withPortBindings(portBindings));
+                });
+        Optional.ofNullable(dataDirectory)
+                .map(directory -> LocalKafkaDataDirectory.of(Path.of(directory),
+                        Optional.ofNullable(dataArchive).map(Path::of).orElse(null)))
+                .ifPresent(container::withDataDirectory);
+        if (jmx) {
+            container.withJmxPort(Optional.ofNullable(jmxPort).orElseGet(KafkaContainerConfig::findFreePort));
+        }
+        if (flightRecording) {
+            container.withFlightRecording(flightRecordingSettings, Path.of(flightRecordingDirectory));
+        }
+        container.withTopics(Binder.get(environment)
+                .bind("spring.local.kafka.topics", Bindable.listOf(LocalKafkaTopic.class))
+                .orElse(List.of()));
+        if (clusterBrokers > 1) {
+            final var network = Network.newNetwork();
+            container.withNetwork(network)
+                    .withNetworkAliases(BROKER_NETWORK_ALIAS + 1);
+            container.withPeers(IntStream.rangeClosed(2, clusterBrokers)
+                    .mapToObj(brokerId -> createPeer(network, brokerId))
+                    .toList());
+        }
+        if (network) {
+            final var proxyNetwork = Network.newNetwork();
+            container.withNetwork(proxyNetwork)
+                    .withNetworkAliases(BROKER_NETWORK_ALIAS + 1);
+            container.withNetworkProxy(createNetworkProxy(proxyNetwork));
+        }
+        if (schemaRegistry) {
+            if (container.getNetwork() == null) {
+                container.withNetwork(Network.newNetwork())
+                        .withNetworkAliases(BROKER_NETWORK_ALIAS + 1);
+            }
+            container.withSchemaRegistry(createSchemaRegistry(container.getNetwork()));
+        }
+        if (reuseContainer) {
+            container.withWipeOnReuse(wipeReusedContainer)
+                    .withShutdownPolicy(reusedContainerShutdown)
+                    .withReuse(true);
+        }
+        return container.withReadinessProbe(readinessProbe)
+                .withAsyncStartup(asyncStartup);
+    }
+
+    private LocalKafkaContainer createPeer(final Network network, final int brokerId) {
+        final var peer = createBroker(image())
+                .withBrokerId(brokerId)
+                .withPeerOf(BROKER_NETWORK_ALIAS + 1)
+                .withReadinessProbe(false);
+        peer.withNetwork(network)
+                .withNetworkAliases(BROKER_NETWORK_ALIAS + brokerId);
+        Optional.ofNullable(containerName)
+                .ifPresent(name -> peer.withCreateContainerCmdModifier(cmd -> cmd.withName(name + "-" + brokerId)));
+        return peer;
+    }
+
+    private LocalKafkaNetworkProxy createNetworkProxy(final Network proxyNetwork) {
+        final var proxy = new LocalKafkaNetworkProxy(DockerImageName.parse(
+                Optional.ofNullable(networkImage).orElse(LocalKafkaNetworkProxy.DEFAULT_IMAGE)))
+                .withUpstream(BROKER_NETWORK_ALIAS + 1 + ":" + KafkaContainer.KAFKA_PORT)
+                .withConditions(Binder.get(environment)
+                        .bind("spring.local.kafka.network", LocalKafkaNetworkConditions.class)
+                        .orElse(LocalKafkaNetworkConditions.none()));
+        proxy.withNetwork(proxyNetwork);
+        Optional.ofNullable(containerName)
+                .ifPresent(name -> proxy.withCreateContainerCmdModifier(cmd -> cmd.withName(name + "-proxy")));
+        return proxy;
+    }
+
+    private LocalKafkaSchemaRegistry createSchemaRegistry(final Network brokerNetwork) {
+        final var registry = new LocalKafkaSchemaRegistry(Optional.ofNullable(schemaRegistryImage)
+                .map(DockerImageName::parse)
+                .orElseGet(() -> LocalKafkaSchemaRegistry.imageFor(image())))
+                .withBroker(BROKER_NETWORK_ALIAS + 1);
+        registry.withNetwork(brokerNetwork);
+        Optional.ofNullable(containerName)
+                .ifPresent(name -> registry.withCreateContainerCmdModifier(cmd -> cmd.withName(name + "-schema-registry")));
+        return registry;
+    }
+
+    private DockerImageName image() {
+        return resolveImage(containerImage, mode);
+    }
+
+    static DockerImageName resolveImage(final String containerImage, final Mode mode) {
+        return DockerImageName.parse(Optional.ofNullable(containerImage)
+                .orElse(mode == Mode.KRAFT ? KAFKA_KRAFT_DEFAULT_IMAGE : KAFKA_DEFAULT_IMAGE));
+    }
+
+    private LocalKafkaContainer createBroker(final DockerImageName image) {
+        final var container = new LocalKafkaContainer(image);
+        if (mode == Mode.KRAFT) {
+            container.withKraft();
+        }
+        final var brokerProperties = new LinkedHashMap<>(brokerProfile.getProperties());
+        if (clusterBrokers > 1) {
+            brokerProperties.putAll(clusterReplicationProperties(clusterBrokers));
+        }
+        brokerProperties.putAll(Binder.get(environment)
+                .bind("spring.local.kafka.broker.properties", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of()));
+        container.withBrokerProperties(brokerProperties);
+        if (tmpfs) {
+            container.withTmpfsDataDirectories(tmpfsSize.toBytes());
+        }
+        container.withResourceLimits(
+                Optional.ofNullable(cpus).orElse(resourceProfile.getCpus()),
+                Optional.ofNullable(memory).map(DataSize::toBytes).orElse(resourceProfile.getMemory()));
+        container.withJvmOptions(
+                Optional.ofNullable(heapOpts).orElse(resourceProfile.getHeapOpts()),
+                Optional.ofNullable(jvmPerformanceOpts).orElse(resourceProfile.getJvmPerformanceOpts()));
         if (followContainerLog) {
             container.withLogConsumer(new Slf4jLogConsumer(logger));
         }
-        container.start();
+        return container;
+    }
+
+    static Map<String, String> clusterReplicationProperties(final int clusterBrokers) {
+        final var replicationFactor = String.valueOf(clusterBrokers);
+        final var minInSyncReplicas = String.valueOf(Math.max(1, clusterBrokers - 1));
+        return Map.of(
+                "default.replication.factor", replicationFactor,
+                "offsets.topic.replication.factor", replicationFactor,
+                "transaction.state.log.replication.factor", replicationFactor,
+                "transaction.state.log.min.isr", minInSyncReplicas);
+    }
+
+    private void logBanner(final LocalKafkaContainer container) {
         logger.info(MessageFormat.format("""
                       
                       
@@ -107,7 +531,18 @@ public class KafkaContainerConfig {
                         
                             Container: {0}
                             Image: {1}
+                            Mode: {7}
+                            Broker Profile: {9}
+                            Brokers: {10}
+                            Snapshot: {11}
+                            Network: {12}
+                            JMX: {13}
+                            Data: {14}
+                            Schema Registry: {15}
                             Port Mapping: {2}:{3}
+                            Reused: {5}
+                            Shared: {6}
+                            Startup: {8}
                         
                             Kafka Bootstrap Server URL: {4}
                         
@@ -118,7 +553,78 @@ public class KafkaContainerConfig {
                 container.getDockerImageName(),
                 String.valueOf(container.getMappedPort(KafkaContainer.KAFKA_PORT)),
                 String.valueOf(KafkaContainer.KAFKA_PORT),
-                container.getBootstrapServers()));
-        return container;
+                container.getBootstrapServers(),
+                String.valueOf(container.isReused()),
+                String.valueOf(container.isShared()),
+                container.getMode() == Mode.KRAFT ? "KRaft" : "ZooKeeper",
+                container.getStartupTimings(),
+                brokerProfile.name().toLowerCase(),
+                String.valueOf(container.getPeers().size() + 1),
+                Optional.ofNullable(container.getSnapshot())
+                        .filter(s -> s.isPresent() || !container.isReused())
+                        .map(s -> (s.isPresent() ? "restored from " : "taken as ") + s.getImage().asCanonicalNameString())
+                        .orElse("none"),
+                Optional.ofNullable(container.getNetworkProxy())
+                        .map(LocalKafkaNetworkProxy::getConditions)
+                        .map(c -> MessageFormat.format("latency {0} ms, jitter {1} ms, bandwidth {2}, disconnects {3}",
+                                String.valueOf(c.latency().toMillis()),
+                                String.valueOf(c.jitter().toMillis()),
+                                Optional.ofNullable(c.bandwidth()).map(b -> b.toKilobytes() + " KB/s").orElse("unlimited"),
+                                Optional.ofNullable(c.disconnectInterval()).map(i -> "every " + i.toMillis() + " ms").orElse("never")))
+                        .orElse("loopback"),
+                Optional.ofNullable(container.getJmxServiceUrl()).orElse("not exposed"),
+                Optional.ofNullable(container.getDataDirectory())
+                        .map(d -> d.getDirectory().toString())
+                        .orElse("inside the container"),
+                Optional.ofNullable(container.getSchemaRegistry())
+                        .map(LocalKafkaSchemaRegistry::getUrl)
+                        .orElse("none")));
+    }
+
+    private static int findFreePort() {
+        try (final var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not find a free port for Kafka.", e);
+        }
+    }
+
+    /**
+     * Resolves the URL of a Schema Registry only when it is read, since the
+     * port it is mapped to is not known until the Container has started.
+     * Container Beans are created before other singletons, so the URL is
+     * registered before the Kafka properties of Spring Boot are bound.
+     */
+    private static class SchemaRegistryPropertySource extends EnumerablePropertySource<LocalKafkaSchemaRegistry> {
+
+        private static final String[] NAMES = {
+                PROPERTY_PREFIX + "schema-registry.url",
+                "spring.kafka.properties.schema.registry.url"};
+
+        SchemaRegistryPropertySource(final LocalKafkaSchemaRegistry schemaRegistry) {
+            super("localKafkaSchemaRegistry", schemaRegistry);
+        }
+
+        @Override
+        public String[] getPropertyNames() {
+            return NAMES.clone();
+        }
+
+        @Override
+        public Object getProperty(final String name) {
+            return Arrays.asList(NAMES).contains(name) ? getSource().getUrl() : null;
+        }
+    }
+
+    static String configurationKey(final ConfigurableEnvironment environment,
+                                   final List<String> prefixes) {
+        final var properties = new TreeMap<String, String>();
+        environment.getPropertySources().stream()
+                .filter(EnumerablePropertySource.class::isInstance)
+                .map(EnumerablePropertySource.class::cast)
+                .flatMap(ps -> Arrays.stream(ps.getPropertyNames()))
+                .filter(name -> prefixes.stream().anyMatch(prefix -> name.startsWith(PROPERTY_PREFIX + prefix)))
+                .forEach(name -> properties.put(name, environment.getProperty(name)));
+        return properties.toString();
     }
 }
@@ -0,0 +1,46 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * <p> Publishes how long each phase of starting the Kafka Container took
+ * as Micrometer Timers named {@value #METER_NAME}, tagged by phase, plus
+ * one tagged {@code total}. Recorded once the Container is ready.
+ *
+ * @author Quinn Andrews
+ */
+public class KafkaContainerStartupMetrics implements MeterBinder {
+
+    public static final String METER_NAME = "spring.local.kafka.startup";
+
+    private final LocalKafkaContainer kafkaContainer;
+
+    /**
+     * Constructs an instance for the given Container.
+     *
+     * @param kafkaContainer The Container whose startup is measured.
+     */
+    public KafkaContainerStartupMetrics(final LocalKafkaContainer kafkaContainer) {
+        this.kafkaContainer = kafkaContainer;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        kafkaContainer.getStartup().thenAccept(container -> {
+            final var timings = container.getStartupTimings();
+            timings.getDurations().forEach((phase, duration) -> timer(registry, phase.getTag()).record(duration));
+            timer(registry, "total").record(timings.getTotal());
+        });
+    }
+
+    private Timer timer(final MeterRegistry registry, final String phase) {
+        return Timer.builder(METER_NAME)
+                .description("Time taken by each phase of starting the local Kafka container")
+                .tag("phase", phase)
+                .tag("image", kafkaContainer.getDockerImageName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer.Mode;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaImagePuller;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+/**
+ * <p> Starts pulling the Docker Image of the Kafka Container on a background
+ * thread as soon as {@link EnableLocalKafka} is processed, which is before any
+ * Bean is created, so that the pull overlaps with the rest of the refresh of
+ * the Application Context. Only the pull does: the Container is still created
+ * and started along with its Bean. Only does so when enabled with
+ * {@code spring.local.kafka.container.pre-pull-image}, and not when the
+ * Container starts from a snapshot that has already been taken, which is
+ * checked on the background thread, since it connects to Docker. Registers
+ * no Bean Definitions.
+ *
+ * @author Quinn Andrews
+ */
+public class KafkaImagePrePullRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(final Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void registerBeanDefinitions(final AnnotationMetadata importingClassMetadata,
+                                        final BeanDefinitionRegistry registry) {
+        final var binder = Binder.get(environment);
+        if (!binder.bind("spring.local.kafka.engaged", Boolean.class).orElse(true)
+                || !binder.bind("spring.local.kafka.container.pre-pull-image", Boolean.class).orElse(false)) {
+            return;
+        }
+        final var snapshotConfiguration =
+                binder.bind("spring.local.kafka.container.snapshot.enabled", Boolean.class).orElse(false)
+                        && environment instanceof ConfigurableEnvironment configurableEnvironment
+                        ? KafkaContainerConfig.configurationKey(configurableEnvironment,
+                                KafkaContainerConfig.SNAPSHOT_PROPERTIES)
+                        : null;
+        LocalKafkaImagePuller.pullInBackground(KafkaContainerConfig.resolveImage(
+                binder.bind("spring.local.kafka.container.image", String.class).orElse(null),
+                binder.bind("spring.local.kafka.mode", Mode.class).orElse(Mode.ZOOKEEPER)), snapshotConfiguration);
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.loadgen.LocalKafkaLoadGenerator;
+import io.github.quinnandrews.spring.local.kafka.loadgen.LocalKafkaPayloadSupplier;
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespace;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p> Registers a {@link LocalKafkaLoadGenerator} that sends synthetic
+ * records to the local broker, to put consumers under sustained load.
+ *
+ * <p> See the project README for configuration details.
+ *
+ * @author Quinn Andrews
+ */
+@ConditionalOnProperty(name="spring.local.kafka.loadgen.enabled",
+                       havingValue="true")
+@Configuration
+public class LocalKafkaLoadGeneratorConfig {
+
+    private final List<String> topics;
+    private final Integer rate;
+    private final Long records;
+    private final Duration duration;
+    private final DataSize recordSize;
+    private final Integer maxInFlight;
+    private final Duration reportInterval;
+    private final Boolean autoStart;
+    private final Environment environment;
+
+    /**
+     * Constructs an instance of this Configuration Class with the given properties.
+     *
+     * @param topics         The Topics to send records to.
+     * @param rate           The target number of records per second, or 0 for maximum throughput (optional).
+     * @param records        The number of records to send (optional).
+     * @param duration       How long to send records for (optional).
+     * @param recordSize     The size of each random record (optional).
+     * @param maxInFlight    The maximum number of records sent but not yet acknowledged (optional).
+     * @param reportInterval How often to log progress (optional).
+     * @param autoStart      Whether to start sending when the Application Context starts (optional).
+     * @param environment    The Environment, used to bind producer properties.
+     */
+    public LocalKafkaLoadGeneratorConfig(@Value("${spring.local.kafka.loadgen.topics:}")
+                                         final List<String> topics,
+                                         @Value("${spring.local.kafka.loadgen.rate:#{1000}}")
+                                         final Integer rate,
+                                         @Value("${spring.local.kafka.loadgen.records:#{null}}")
+                                         final Long records,
+                                         @Value("${spring.local.kafka.loadgen.duration:#{null}}")
+                                         final Duration duration,
+                                         @Value("${spring.local.kafka.loadgen.record-size:100B}")
+                                         final DataSize recordSize,
+                                         @Value("${spring.local.kafka.loadgen.max-in-flight:#{10000}}")
+                                         final Integer maxInFlight,
+                                         @Value("${spring.local.kafka.loadgen.report-interval:5s}")
+                                         final Duration reportInterval,
+                                         @Value("${spring.local.kafka.loadgen.auto-start:#{false}}")
+                                         final Boolean autoStart,
+                                         final Environment environment) {
+        this.topics = topics;
+        this.rate = rate;
+        this.records = records;
+        this.duration = duration;
+        this.recordSize = recordSize;
+        this.maxInFlight = maxInFlight;
+        this.reportInterval = reportInterval;
+        this.autoStart = autoStart;
+        this.environment = environment;
+    }
+
+    /**
+     * Returns a Load Generator that sends to the configured Topics through
+     * a producer of its own, tuned for throughput unless overridden with
+     * {@code spring.local.kafka.loadgen.producer.properties}. Record values
+     * come from the {@link LocalKafkaPayloadSupplier} Bean if there is one,
+     * or are random otherwise.
+     *
+     * @param kafkaConnectionDetails The Connection Details of the local broker.
+     * @param payloadSupplier        The supplier of record values, if one is declared.
+     * @param namespace              The namespace to send records in, if namespacing is enabled.
+     * @return LocalKafkaLoadGenerator
+     */
+    @Bean
+    public LocalKafkaLoadGenerator localKafkaLoadGenerator(final KafkaConnectionDetails kafkaConnectionDetails,
+                                                           final ObjectProvider<LocalKafkaPayloadSupplier> payloadSupplier,
+                                                           final ObjectProvider<LocalKafkaNamespace> namespace) {
+        if (topics.stream().allMatch(String::isBlank)) {
+            throw new IllegalArgumentException("spring.local.kafka.loadgen.topics must name at least one Topic.");
+        }
+        final var producerConfigs = new HashMap<String, Object>();
+        producerConfigs.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                String.join(",", kafkaConnectionDetails.getProducerBootstrapServers()));
+        producerConfigs.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        producerConfigs.put(ProducerConfig.BATCH_SIZE_CONFIG, 131072);
+        producerConfigs.putAll(Binder.get(environment)
+                .bind("spring.local.kafka.loadgen.producer.properties", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of()));
+        final var localKafkaNamespace = Optional.ofNullable(namespace.getIfAvailable());
+        final var namespacedTopics = topics.stream()
+                .filter(t -> !t.isBlank())
+                .map(t -> localKafkaNamespace.map(n -> n.apply(t)).orElse(t))
+                .toList();
+        return new LocalKafkaLoadGenerator(producerConfigs, namespacedTopics)
+                .withRate(rate)
+                .withRecords(records)
+                .withDuration(duration)
+                .withMaxInFlight(maxInFlight)
+                .withReportInterval(reportInterval)
+                .withPayloadSupplier(payloadSupplier.getIfAvailable(() ->
+                        LocalKafkaPayloadSupplier.random((int) recordSize.toBytes())))
+                .withAutoStartup(autoStart);
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import io.github.quinnandrews.spring.local.kafka.metrics.LocalKafkaMetricsCollector;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p> Registers a collector that polls the local broker for the lag of its
+ * Consumer Groups, the size of its Topics, its throughput and the time it
+ * takes to handle requests, and publishes them through Micrometer and an
+ * HTTP endpoint when they are available.
+ *
+ * <p> See the project README for configuration details.
+ *
+ * @author Quinn Andrews
+ */
+@ConditionalOnProperty(name="spring.local.kafka.metrics.enabled",
+                       havingValue="true")
+@Configuration
+public class LocalKafkaMetricsConfig {
+
+    private final Duration interval;
+    private final String jmxUrl;
+
+    /**
+     * Constructs an instance of this Configuration Class with the given properties.
+     *
+     * @param interval The time between polls of the broker (optional).
+     * @param jmxUrl   The JMX service URL of the broker, if not exposed by the Container (optional).
+     */
+    public LocalKafkaMetricsConfig(@Value("${spring.local.kafka.metrics.interval:5s}")
+                                   final Duration interval,
+                                   @Value("${spring.local.kafka.metrics.jmx-url:#{null}}")
+                                   final String jmxUrl) {
+        this.interval = interval;
+        this.jmxUrl = jmxUrl;
+    }
+
+    /**
+     * Returns a collector that polls the broker in the background for as
+     * long as the Application Context is running.
+     *
+     * @param kafkaConnectionDetails The Connection Details of the local broker.
+     * @param kafkaContainer         The Container running the broker, whose JMX URL is used
+     *                               unless one is configured, if there is one.
+     * @return LocalKafkaMetricsCollector
+     */
+    @Bean
+    public LocalKafkaMetricsCollector localKafkaMetricsCollector(final KafkaConnectionDetails kafkaConnectionDetails,
+                                                                 final ObjectProvider<LocalKafkaContainer> kafkaContainer) {
+        return new LocalKafkaMetricsCollector(
+                Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG,
+                        String.join(",", kafkaConnectionDetails.getAdminBootstrapServers())),
+                interval,
+                () -> Optional.ofNullable(jmxUrl)
+                        .or(() -> Optional.ofNullable(kafkaContainer.getIfAvailable())
+                                .map(LocalKafkaContainer::getJmxServiceUrl))
+                        .orElse(null));
+    }
+
+    /**
+     * Publishes the collected metrics through Micrometer, when Micrometer
+     * is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerConfig {
+
+        /**
+         * Returns a Bean that binds the collected metrics to any MeterRegistry
+         * in the Application Context.
+         *
+         * @param localKafkaMetricsCollector The collector of the metrics.
+         * @return KafkaBrokerMetrics
+         */
+        @Bean
+        public KafkaBrokerMetrics kafkaBrokerMetrics(final LocalKafkaMetricsCollector localKafkaMetricsCollector) {
+            return new KafkaBrokerMetrics(localKafkaMetricsCollector);
+        }
+    }
+
+    /**
+     * Serves the latest collected metrics as JSON, in servlet web Applications.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(name = "spring.local.kafka.metrics.endpoint.enabled",
+                           havingValue = "true",
+                           matchIfMissing = true)
+    static class EndpointConfig {
+
+        /**
+         * Returns a route that serves the latest collected metrics at the
+         * configured path.
+         *
+         * @param localKafkaMetricsCollector The collector of the metrics.
+         * @param path                       The path of the endpoint (optional).
+         * @return RouterFunction
+         */
+        @Bean
+        public RouterFunction<ServerResponse> localKafkaMetricsEndpoint(final LocalKafkaMetricsCollector localKafkaMetricsCollector,
+                                                                        @Value("${spring.local.kafka.metrics.endpoint.path:/local-kafka/metrics}")
+                                                                        final String path) {
+            return RouterFunctions.route()
+                    .GET(path, request -> ServerResponse.ok().body(localKafkaMetricsCollector.getSnapshot()))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaTopic;
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespace;
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespaceManager;
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespacePostProcessor;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p> Moves the Topics and Consumer Groups of the Application Context into a
+ * namespace of their own, so that many Application Contexts, such as test
+ * classes running in parallel, can share one broker without cross-talk.
+ *
+ * <p> See the project README for configuration details.
+ *
+ * @author Quinn Andrews
+ */
+@ConditionalOnProperty(name="spring.local.kafka.namespace.enabled",
+                       havingValue="true")
+@Configuration
+public class LocalKafkaNamespaceConfig {
+
+    private final Boolean cleanup;
+    private final Environment environment;
+
+    /**
+     * Constructs an instance of this Configuration Class with the given properties.
+     *
+     * @param cleanup     Whether to delete the Topics and Consumer Groups of the namespace on close (optional).
+     * @param environment The Environment, used to bind the Topics to create inside the namespace.
+     */
+    public LocalKafkaNamespaceConfig(@Value("${spring.local.kafka.namespace.cleanup:#{true}}")
+                                     final Boolean cleanup,
+                                     final Environment environment) {
+        this.cleanup = cleanup;
+        this.environment = environment;
+    }
+
+    /**
+     * Returns the namespace of this Application Context, with the configured
+     * prefix, or a random one otherwise. Static, and an infrastructure Bean,
+     * since it is needed by the post-processor below before regular Beans are
+     * created, and is not meant to be processed by other post-processors.
+     *
+     * @param prefix The prefix of the namespace (optional).
+     * @return LocalKafkaNamespace
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static LocalKafkaNamespace localKafkaNamespace(@Value("${spring.local.kafka.namespace.prefix:#{null}}")
+                                                          final String prefix) {
+        return Optional.ofNullable(prefix)
+                .map(LocalKafkaNamespace::of)
+                .orElseGet(LocalKafkaNamespace::random);
+    }
+
+    /**
+     * Returns a post-processor that rewrites the names of Topics and Consumer
+     * Groups resolved by {@code @KafkaListener} annotations, Producer and
+     * Consumer Factories and {@code NewTopic} Beans.
+     *
+     * @param localKafkaNamespace The namespace of this Application Context.
+     * @return LocalKafkaNamespacePostProcessor
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static LocalKafkaNamespacePostProcessor localKafkaNamespacePostProcessor(final LocalKafkaNamespace localKafkaNamespace) {
+        return new LocalKafkaNamespacePostProcessor(localKafkaNamespace);
+    }
+
+    /**
+     * Returns a Bean that creates the Topics configured with
+     * {@code spring.local.kafka.topics} inside the namespace, and deletes
+     * the namespace when the Application Context closes.
+     *
+     * @param localKafkaNamespace    The namespace of this Application Context.
+     * @param kafkaConnectionDetails The Connection Details of the local broker.
+     * @return LocalKafkaNamespaceManager
+     */
+    @Bean
+    public LocalKafkaNamespaceManager localKafkaNamespaceManager(final LocalKafkaNamespace localKafkaNamespace,
+                                                                 final KafkaConnectionDetails kafkaConnectionDetails) {
+        return new LocalKafkaNamespaceManager(localKafkaNamespace,
+                Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG,
+                        String.join(",", kafkaConnectionDetails.getAdminBootstrapServers())),
+                Binder.get(environment)
+                        .bind("spring.local.kafka.topics", Bindable.listOf(LocalKafkaTopic.class))
+                        .orElse(List.of()),
+                cleanup);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespace;
+import io.github.quinnandrews.spring.local.kafka.reset.LocalKafkaResetter;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * <p> Registers a {@link LocalKafkaResetter} that clears the Topics of the
+ * local broker between tests without restarting it.
+ *
+ * <p> See the project README for configuration details.
+ *
+ * @author Quinn Andrews
+ */
+@ConditionalOnProperty(name="spring.local.kafka.engaged",
+                       havingValue="true",
+                       matchIfMissing = true)
+@Configuration
+public class LocalKafkaResetConfig {
+
+    private final LocalKafkaResetter.Strategy strategy;
+    private final Duration timeout;
+
+    /**
+     * Constructs an instance of this Configuration Class with the given properties.
+     *
+     * @param strategy How to clear Topics (optional).
+     * @param timeout  How long a reset may take (optional).
+     */
+    public LocalKafkaResetConfig(@Value("${spring.local.kafka.reset.strategy:truncate}")
+                                 final LocalKafkaResetter.Strategy strategy,
+                                 @Value("${spring.local.kafka.reset.timeout:30s}")
+                                 final Duration timeout) {
+        this.strategy = strategy;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns a Resetter for the local broker. When namespacing is enabled,
+     * only the Topics of the namespace of this Application Context are
+     * cleared.
+     *
+     * @param kafkaConnectionDetails The Connection Details of the local broker.
+     * @param namespace              The namespace of this Application Context, if namespacing is enabled.
+     * @return LocalKafkaResetter
+     */
+    @Bean
+    public LocalKafkaResetter localKafkaResetter(final KafkaConnectionDetails kafkaConnectionDetails,
+                                                 final ObjectProvider<LocalKafkaNamespace> namespace) {
+        final var resetter = new LocalKafkaResetter(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG,
+                String.join(",", kafkaConnectionDetails.getAdminBootstrapServers())))
+                .withStrategy(strategy)
+                .withTimeout(timeout);
+        namespace.ifAvailable(n -> resetter.withTopicFilter(n::contains));
+        return resetter;
+    }
+}
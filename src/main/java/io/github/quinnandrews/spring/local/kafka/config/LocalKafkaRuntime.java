@@ -0,0 +1,21 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+/**
+ * <p> Where the broker runs.
+ *
+ * @author Quinn Andrews
+ */
+public enum LocalKafkaRuntime {
+
+    /**
+     * Runs the broker inside a Docker Container with Testcontainers.
+     */
+    CONTAINER,
+
+    /**
+     * Runs the broker in KRaft mode inside the JVM of the Application, with
+     * the embedded support of Spring Kafka Test, which must be on the classpath.
+     * Needs no Docker, and avoids the overhead of its network namespaces.
+     */
+    EMBEDDED
+}
@@ -0,0 +1,35 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportSelector;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+/**
+ * <p> Imports the configuration of the runtime selected with
+ * {@code spring.local.kafka.runtime}, so that the classes of the other
+ * runtime are never loaded, and need not be on the classpath.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaRuntimeSelector implements ImportSelector, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(final Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String[] selectImports(final AnnotationMetadata importingClassMetadata) {
+        final var runtime = Binder.get(environment)
+                .bind("spring.local.kafka.runtime", LocalKafkaRuntime.class)
+                .orElse(LocalKafkaRuntime.CONTAINER);
+        if (runtime == LocalKafkaRuntime.EMBEDDED) {
+            return new String[] {EmbeddedKafkaConfig.class.getName()};
+        }
+        return new String[] {KafkaImagePrePullRegistrar.class.getName(), KafkaContainerConfig.class.getName()};
+    }
+}
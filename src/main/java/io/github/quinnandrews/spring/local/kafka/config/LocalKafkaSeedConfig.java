@@ -0,0 +1,106 @@
+package io.github.quinnandrews.spring.local.kafka.config;
+
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespace;
+import io.github.quinnandrews.spring.local.kafka.seed.LocalKafkaSeed;
+import io.github.quinnandrews.spring.local.kafka.seed.LocalKafkaSeeder;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p> Loads records from files into Topics once the broker has started,
+ * and before Kafka Listeners start, so that the Application starts with
+ * realistic Topic contents.
+ *
+ * <p> See the project README for configuration details.
+ *
+ * @author Quinn Andrews
+ */
+@ConditionalOnProperty(name="spring.local.kafka.seed.enabled",
+                       havingValue="true")
+@Configuration
+public class LocalKafkaSeedConfig {
+
+    private final Duration progressInterval;
+    private final Boolean skipIfNotEmpty;
+    private final Environment environment;
+
+    /**
+     * Constructs an instance of this Configuration Class with the given properties.
+     *
+     * @param progressInterval How often to log progress while loading (optional).
+     * @param skipIfNotEmpty   Whether to leave Topics that already hold records as they are (optional).
+     * @param environment      The Environment, used to bind seed files and producer properties.
+     */
+    public LocalKafkaSeedConfig(@Value("${spring.local.kafka.seed.progress-interval:5s}")
+                                final Duration progressInterval,
+                                @Value("${spring.local.kafka.seed.skip-if-not-empty:#{true}}")
+                                final Boolean skipIfNotEmpty,
+                                final Environment environment) {
+        this.progressInterval = progressInterval;
+        this.skipIfNotEmpty = skipIfNotEmpty;
+        this.environment = environment;
+    }
+
+    /**
+     * Returns a Seeder with a producer tuned for bulk loading, unless
+     * overridden with {@code spring.local.kafka.seed.producer.properties}.
+     *
+     * @param kafkaConnectionDetails The Connection Details of the local broker.
+     * @param resourceLoader         Resolves the locations of seed files.
+     * @return LocalKafkaSeeder
+     */
+    @Bean
+    public LocalKafkaSeeder localKafkaSeeder(final KafkaConnectionDetails kafkaConnectionDetails,
+                                             final ResourceLoader resourceLoader) {
+        final var producerConfigs = new HashMap<String, Object>(LocalKafkaSeeder.DEFAULT_PRODUCER_PROPERTIES);
+        producerConfigs.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                String.join(",", kafkaConnectionDetails.getProducerBootstrapServers()));
+        producerConfigs.putAll(Binder.get(environment)
+                .bind("spring.local.kafka.seed.producer.properties", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of()));
+        return new LocalKafkaSeeder(producerConfigs, ResourcePatternUtils.getResourcePatternResolver(resourceLoader))
+                .withProgressInterval(progressInterval)
+                .withSkipIfNotEmpty(skipIfNotEmpty);
+    }
+
+    /**
+     * Returns a Bean that loads the configured seed files once all singletons
+     * have been instantiated, which is after the broker has started and its
+     * Topics have been created, but before Kafka Listeners start.
+     *
+     * @param localKafkaSeeder The Seeder to load the files with.
+     * @param namespace        The namespace to load the files into, if namespacing is enabled.
+     * @return SmartInitializingSingleton
+     */
+    @Bean
+    public SmartInitializingSingleton localKafkaSeeding(final LocalKafkaSeeder localKafkaSeeder,
+                                                        final ObjectProvider<LocalKafkaNamespace> namespace) {
+        final var localKafkaNamespace = Optional.ofNullable(namespace.getIfAvailable());
+        final List<LocalKafkaSeed> seeds = Binder.get(environment)
+                .bind("spring.local.kafka.seed.files", Bindable.listOf(LocalKafkaSeed.class))
+                .orElse(List.of()).stream()
+                .map(seed -> localKafkaNamespace
+                        .map(n -> new LocalKafkaSeed(n.apply(seed.topic()), seed.location(), seed.format(),
+                                seed.keyField(), seed.separator()))
+                        .orElse(seed))
+                .toList();
+        return () -> localKafkaSeeder.seed(seeds);
+    }
+}
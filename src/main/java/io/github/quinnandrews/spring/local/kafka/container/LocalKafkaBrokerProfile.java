@@ -0,0 +1,56 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import java.util.Map;
+
+/**
+ * <p> Predefined sets of broker properties, applied before any broker
+ * properties that are configured explicitly, which take precedence.
+ *
+ * @author Quinn Andrews
+ */
+public enum LocalKafkaBrokerProfile {
+
+    /**
+     * Runs the broker with the defaults of the Docker Image, as adjusted
+     * by the Testcontainers Kafka module.
+     */
+    DEFAULT(Map.of()),
+
+    /**
+     * Tunes a single broker for low latency in a development loop: no delay
+     * before the first rebalance of a Consumer Group, single partition internal
+     * Topics, small segments and indexes, a small log cleaner buffer, and no
+     * controlled shutdown, so the Container stops quickly. Internal Topics keep
+     * a single replica, with a single in-sync replica required, and the broker
+     * stops without handing over leadership or closing its logs cleanly, which
+     * is acceptable for a broker that only lives as long as the Application.
+     */
+    FAST(Map.ofEntries(
+            Map.entry("group.initial.rebalance.delay.ms", "0"),
+            Map.entry("group.min.session.timeout.ms", "250"),
+            Map.entry("offsets.topic.num.partitions", "1"),
+            Map.entry("offsets.topic.replication.factor", "1"),
+            Map.entry("transaction.state.log.num.partitions", "1"),
+            Map.entry("transaction.state.log.replication.factor", "1"),
+            Map.entry("transaction.state.log.min.isr", "1"),
+            Map.entry("log.segment.bytes", "16777216"),
+            Map.entry("log.index.size.max.bytes", "1048576"),
+            Map.entry("log.cleaner.dedupe.buffer.size", "4194304"),
+            Map.entry("controlled.shutdown.enable", "false")
+    ));
+
+    private final Map<String, String> properties;
+
+    LocalKafkaBrokerProfile(final Map<String, String> properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the broker properties of this profile.
+     *
+     * @return Map
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+}
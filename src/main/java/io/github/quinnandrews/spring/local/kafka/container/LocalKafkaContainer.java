@@ -0,0 +1,980 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.Ports;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.errors.GroupNotEmptyException;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.rnorth.ducttape.unreliables.Unreliables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.BindMode;
+import org.testcontainers.containers.KafkaContainer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaStartupTimings.Phase;
+import org.testcontainers.containers.Network;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p> Extends the Testcontainers Kafka module with the behavior needed by
+ * Spring Local Kafka, such as control over whether the Container is stopped
+ * when the Application Context closes, and removal of the state left behind
+ * by a previous run when an existing Container is reused.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaContainer extends KafkaContainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaContainer.class);
+
+    private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String PROBE_TOPIC = "__local_kafka_probe";
+
+    private static final String KAFKA_DATA_DIRECTORY = "/var/lib/kafka/data";
+    private static final List<String> ZOOKEEPER_DATA_DIRECTORIES = List.of(
+            "/var/lib/zookeeper/data",
+            "/var/lib/zookeeper/log");
+
+    private static final int CONTROLLER_BROKER_ID = 1;
+    private static final int CONTROLLER_PORT = 9094;
+
+    private static final String FLIGHT_RECORDING_FILE = "/tmp/local-kafka.jfr";
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(60);
+    private static final int PORT_BIND_ATTEMPTS = 5;
+    private static final Duration PORT_BIND_RETRY_DELAY = Duration.ofMillis(500);
+
+    /**
+     * Whether the Container is stopped when it is closed.
+     */
+    public enum ShutdownPolicy {
+        /**
+         * Stop and remove the Container when it is closed.
+         */
+        STOP,
+        /**
+         * Leave a reusable Container running when it is closed, so that it
+         * can be attached to by the next run.
+         */
+        KEEP
+    }
+
+    /**
+     * How the broker inside the Container manages its metadata.
+     */
+    public enum Mode {
+        /**
+         * Run ZooKeeper alongside the broker inside the Container.
+         */
+        ZOOKEEPER,
+        /**
+         * Run the broker in KRaft mode, without ZooKeeper.
+         */
+        KRAFT
+    }
+
+    private final DockerImageName dockerImageName;
+    private Mode mode = Mode.ZOOKEEPER;
+    private ShutdownPolicy shutdownPolicy = ShutdownPolicy.STOP;
+    private boolean wipeOnReuse = true;
+    private boolean reused = false;
+    private String registryKey;
+    private Integer fixedKafkaPort;
+    private boolean asyncStartup = false;
+    private boolean readinessProbe = true;
+    private Long tmpfsSize;
+    private LocalKafkaDataDirectory dataDirectory;
+    private List<LocalKafkaTopic> topics = List.of();
+    private Integer brokerId;
+    private String peerOf;
+    private List<LocalKafkaContainer> peers = List.of();
+    private LocalKafkaSnapshot snapshot;
+    private LocalKafkaNetworkProxy networkProxy;
+    private LocalKafkaSchemaRegistry schemaRegistry;
+    private CompletableFuture<Void> schemaRegistryStartup = CompletableFuture.completedFuture(null);
+    private Integer jmxPort;
+    private String flightRecordingSettings;
+    private Path flightRecordingDirectory;
+    private Path flightRecording;
+    private final LocalKafkaStartupTimings startupTimings = new LocalKafkaStartupTimings();
+    private volatile Thread startupThread;
+    private final CompletableFuture<LocalKafkaContainer> startup = new CompletableFuture<>();
+
+    /**
+     * Constructs an instance with the given Docker Image.
+     *
+     * @param dockerImageName The Docker Image to use as the Container.
+     */
+    public LocalKafkaContainer(final DockerImageName dockerImageName) {
+        super(dockerImageName);
+        this.dockerImageName = dockerImageName;
+    }
+
+    @Override
+    public KafkaContainer withKraft() {
+        super.withKraft();
+        this.mode = Mode.KRAFT;
+        return this;
+    }
+
+    /**
+     * Records the host port that Kafka is bound to, when it is fixed rather
+     * than randomly assigned by Docker, so that the address of the broker
+     * is known before the Container has started.
+     *
+     * @param fixedKafkaPort The host port that Kafka is bound to.
+     * @return this Container
+     */
+    public LocalKafkaContainer withFixedKafkaPort(final Integer fixedKafkaPort) {
+        this.fixedKafkaPort = fixedKafkaPort;
+        return this;
+    }
+
+    /**
+     * Sets whether {@link #start()} starts the Container on a background thread
+     * and returns immediately. Requires a fixed Kafka port, so that the address
+     * returned by {@link #getBootstrapServers()} is known up front. Kafka clients
+     * then simply retry until the broker is ready, while anything that needs the
+     * Container itself, such as {@link #getMappedPort(int)}, waits for it.
+     *
+     * @param asyncStartup Whether to start the Container on a background thread.
+     * @return this Container
+     */
+    public LocalKafkaContainer withAsyncStartup(final boolean asyncStartup) {
+        this.asyncStartup = asyncStartup;
+        return this;
+    }
+
+    /**
+     * Sets whether startup waits for the broker to answer a metadata request
+     * and to elect the leader of a probe Topic, which is deleted afterwards,
+     * before the Container is considered ready. Each of these is recorded as
+     * a phase in the {@link #getStartupTimings() startup timings}.
+     *
+     * @param readinessProbe Whether to probe the broker for readiness.
+     * @return this Container
+     */
+    public LocalKafkaContainer withReadinessProbe(final boolean readinessProbe) {
+        this.readinessProbe = readinessProbe;
+        return this;
+    }
+
+    /**
+     * Mounts the data directories of Kafka, and of ZooKeeper when it is running,
+     * as in-memory tmpfs file systems of the given size, which is faster than
+     * writing to the file system of the Container, but means that the data does
+     * not survive a restart of the Container.
+     *
+     * @param tmpfsSize The size limit of each tmpfs mount in bytes.
+     * @return this Container
+     */
+    public LocalKafkaContainer withTmpfsDataDirectories(final long tmpfsSize) {
+        this.tmpfsSize = tmpfsSize;
+        return this;
+    }
+
+    /**
+     * Mounts the data directories of Kafka, and of ZooKeeper when it is running,
+     * from the given directory of the host, so that Topics, their records and
+     * committed offsets survive a restart of the Container. The broker is shut
+     * down gracefully when this Container is stopped, so that it does not have
+     * to recover its logs on the next start. Files are created writable by
+     * everyone, so that the directory can be archived and deleted from the host.
+     *
+     * @param dataDirectory The directory of the host to keep the data in.
+     * @return this Container
+     */
+    public LocalKafkaContainer withDataDirectory(final LocalKafkaDataDirectory dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        return this;
+    }
+
+    /**
+     * Returns the directory of the host the data is kept in, if any.
+     *
+     * @return LocalKafkaDataDirectory
+     */
+    public LocalKafkaDataDirectory getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /**
+     * Limits the CPU and memory available to the Container. Either limit may
+     * be null, in which case it is not applied. When memory is limited, swap
+     * is disabled, so that the broker does not slow down unpredictably.
+     *
+     * @param cpus   The number of CPUs the Container may use (example: 1.5).
+     * @param memory The memory limit of the Container in bytes.
+     * @return this Container
+     */
+    public LocalKafkaContainer withResourceLimits(final Double cpus, final Long memory) {
+        withCreateContainerCmdModifier(cmd -> {
+            final var hostConfig = cmd.getHostConfig();
+            Optional.ofNullable(cpus).ifPresent(c -> hostConfig.withNanoCPUs((long) (c * 1_000_000_000L)));
+            Optional.ofNullable(memory).ifPresent(m -> hostConfig.withMemory(m).withMemorySwap(m));
+        });
+        return this;
+    }
+
+    /**
+     * Sets the heap options of the broker JVM ({@code KAFKA_HEAP_OPTS}) and its
+     * other JVM options ({@code KAFKA_JVM_PERFORMANCE_OPTS}). Either may be null,
+     * in which case the default of the Docker Image is used.
+     *
+     * @param heapOpts           The heap options (example: {@code -Xms256m -Xmx256m}).
+     * @param jvmPerformanceOpts The other JVM options (example: {@code -XX:+UseSerialGC}).
+     * @return this Container
+     */
+    public LocalKafkaContainer withJvmOptions(final String heapOpts, final String jvmPerformanceOpts) {
+        Optional.ofNullable(heapOpts).ifPresent(o -> withEnv("KAFKA_HEAP_OPTS", o));
+        Optional.ofNullable(jvmPerformanceOpts).ifPresent(o -> withEnv("KAFKA_JVM_PERFORMANCE_OPTS", o));
+        return this;
+    }
+
+    /**
+     * Sets the Topics to create, in one batch, as soon as the broker is ready.
+     * Startup then waits until the leaders of all their partitions have been
+     * elected, so that the first records sent do not have to wait for Topics
+     * to be created automatically, or for their metadata to propagate. When
+     * probing for readiness, these Topics are used in place of the probe Topic.
+     *
+     * @param topics The Topics to create.
+     * @return this Container
+     */
+    public LocalKafkaContainer withTopics(final List<LocalKafkaTopic> topics) {
+        this.topics = List.copyOf(topics);
+        return this;
+    }
+
+    /**
+     * Sets the id of the broker, which must be unique within a cluster.
+     * The broker that hosts ZooKeeper, or the KRaft controller, has id 1.
+     *
+     * @param brokerId The id of the broker.
+     * @return this Container
+     */
+    public LocalKafkaContainer withBrokerId(final int brokerId) {
+        this.brokerId = brokerId;
+        return this;
+    }
+
+    /**
+     * Makes this broker join the cluster of the broker with the given network
+     * alias, through the ZooKeeper it runs or, in KRaft mode, through its
+     * controller, instead of running either itself. Both Containers must be
+     * on the same {@link Network}.
+     *
+     * @param networkAlias The network alias of the broker with id 1.
+     * @return this Container
+     */
+    public LocalKafkaContainer withPeerOf(final String networkAlias) {
+        this.peerOf = networkAlias;
+        return this;
+    }
+
+    /**
+     * Sets the other brokers of the cluster led by this broker. They are
+     * started in parallel once this broker has started, before any Topics
+     * are created, and are stopped along with it. Their addresses are added
+     * to those returned by {@link #getBootstrapServers()}.
+     *
+     * @param peers The other brokers, each configured {@link #withPeerOf(String) as a peer} of this one.
+     * @return this Container
+     */
+    public LocalKafkaContainer withPeers(final List<LocalKafkaContainer> peers) {
+        this.peers = List.copyOf(peers);
+        return this;
+    }
+
+    /**
+     * Returns the other brokers of the cluster led by this broker.
+     *
+     * @return List
+     */
+    public List<LocalKafkaContainer> getPeers() {
+        return peers;
+    }
+
+    /**
+     * Starts the broker from the given snapshot if it has been taken, or takes
+     * it once the broker is ready otherwise. The Container must have been
+     * created with the Image of the snapshot when it is present.
+     *
+     * @param snapshot The snapshot to start from or to take.
+     * @return this Container
+     */
+    public LocalKafkaContainer withSnapshot(final LocalKafkaSnapshot snapshot) {
+        this.snapshot = snapshot;
+        withEnv("KAFKA_LOG_DIRS", LocalKafkaSnapshot.LOG_DIRECTORY);
+        return this;
+    }
+
+    /**
+     * Returns the snapshot this Container was started from or took, if any.
+     *
+     * @return LocalKafkaSnapshot
+     */
+    public LocalKafkaSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Routes clients through the given proxy, which is started before this
+     * Container, and makes the broker advertise the address of the proxy, so
+     * that {@link #getBootstrapServers()} returns it and every connection to
+     * the broker passes through it. Both Containers must be on the same
+     * {@link Network}, and the proxy is stopped along with this Container.
+     *
+     * @param networkProxy The proxy, with its upstream set to the PLAINTEXT listener of this broker.
+     * @return this Container
+     */
+    public LocalKafkaContainer withNetworkProxy(final LocalKafkaNetworkProxy networkProxy) {
+        this.networkProxy = networkProxy;
+        return this;
+    }
+
+    /**
+     * Returns the proxy that clients are routed through, if any.
+     *
+     * @return LocalKafkaNetworkProxy
+     */
+    public LocalKafkaNetworkProxy getNetworkProxy() {
+        return networkProxy;
+    }
+
+    /**
+     * Runs the given Schema Registry next to this broker. It is started
+     * along with this Container, in parallel with it, and this Container
+     * is not reported as started until both are ready. Both Containers
+     * must be on the same {@link Network}, and the Schema Registry is
+     * stopped along with this Container.
+     *
+     * @param schemaRegistry The Schema Registry, with its broker set to the network alias of this one.
+     * @return this Container
+     */
+    public LocalKafkaContainer withSchemaRegistry(final LocalKafkaSchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+        return this;
+    }
+
+    /**
+     * Returns the Schema Registry that runs next to this broker, if any.
+     *
+     * @return LocalKafkaSchemaRegistry
+     */
+    public LocalKafkaSchemaRegistry getSchemaRegistry() {
+        return schemaRegistry;
+    }
+
+    /**
+     * Exposes the JMX port of the broker on the same port of the host, since
+     * the RMI stub returned by JMX must point to a port that clients can reach.
+     * ZooKeeper, when it runs in the Container, is not exposed.
+     *
+     * @param jmxPort The port of the host, and of the Container, to expose JMX on.
+     * @return this Container
+     */
+    public LocalKafkaContainer withJmxPort(final int jmxPort) {
+        this.jmxPort = jmxPort;
+        withCreateContainerCmdModifier(cmd -> {
+            final var exposedPort = new ExposedPort(jmxPort);
+            final var exposedPorts = new ArrayList<>(Optional.ofNullable(cmd.getExposedPorts()).map(List::of).orElse(List.of()));
+            exposedPorts.add(exposedPort);
+            cmd.withExposedPorts(exposedPorts);
+            final var portBindings = Optional.ofNullable(cmd.getHostConfig().getPortBindings()).orElseGet(Ports::new);
+            portBindings.bind(exposedPort, Ports.Binding.bindPort(jmxPort));
+            cmd.getHostConfig().withPortBindings(portBindings);
+        });
+        return this;
+    }
+
+    /**
+     * Returns the JMX service URL of the broker, if JMX is exposed.
+     *
+     * @return String
+     */
+    public String getJmxServiceUrl() {
+        return jmxPort == null ? null : String.format("service:jmx:rmi:///jndi/rmi://%s:%s/jmxrmi", getHost(), jmxPort);
+    }
+
+    /**
+     * Records a Java Flight Recording of the broker JVM from the moment it
+     * starts, and copies it to the given directory of the host when this
+     * Container is stopped, after shutting the broker down gracefully so
+     * that the recording is complete. Requires a Docker Image with Java 11
+     * or later, and is skipped when the Container is left running.
+     *
+     * @param settings  The JFR settings to record with (example: {@code profile}).
+     * @param directory The directory of the host to copy the recording to.
+     * @return this Container
+     */
+    public LocalKafkaContainer withFlightRecording(final String settings, final Path directory) {
+        this.flightRecordingSettings = settings;
+        this.flightRecordingDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Returns the file of the host the flight recording was copied to,
+     * once this Container has been stopped.
+     *
+     * @return Path
+     */
+    public Path getFlightRecording() {
+        return flightRecording;
+    }
+
+    /**
+     * Passes the given broker properties (example: {@code log.segment.bytes})
+     * to the broker as environment variables, following the naming convention
+     * of the Confluent Docker Images (example: {@code KAFKA_LOG_SEGMENT_BYTES}).
+     *
+     * @param brokerProperties The broker properties to set.
+     * @return this Container
+     */
+    public LocalKafkaContainer withBrokerProperties(final Map<String, String> brokerProperties) {
+        brokerProperties.forEach((name, value) -> withEnv(toEnvironmentVariable(name), value));
+        return this;
+    }
+
+    /**
+     * Converts the name of a broker property to the name of the environment
+     * variable that sets it in the Confluent Docker Images, where dots become
+     * underscores, underscores become double underscores and dashes become
+     * triple underscores.
+     *
+     * @param brokerProperty The name of the broker property.
+     * @return String
+     */
+    public static String toEnvironmentVariable(final String brokerProperty) {
+        return "KAFKA_" + brokerProperty
+                .replace("_", "__")
+                .replace("-", "___")
+                .replace(".", "_")
+                .toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Sets what happens to a reusable Container when it is closed. Has no
+     * effect unless reuse has been requested with {@link #withReuse(boolean)}.
+     *
+     * @param shutdownPolicy The policy to apply when closed.
+     * @return this Container
+     */
+    public LocalKafkaContainer withShutdownPolicy(final ShutdownPolicy shutdownPolicy) {
+        this.shutdownPolicy = shutdownPolicy;
+        return this;
+    }
+
+    /**
+     * Sets whether Topics and Consumer Groups left behind by a previous run
+     * are deleted when an existing Container is reused.
+     *
+     * @param wipeOnReuse Whether to delete existing Topics and Consumer Groups.
+     * @return this Container
+     */
+    public LocalKafkaContainer withWipeOnReuse(final boolean wipeOnReuse) {
+        this.wipeOnReuse = wipeOnReuse;
+        return this;
+    }
+
+    /**
+     * Returns whether an existing Container was attached to instead of
+     * starting a new one.
+     *
+     * @return boolean
+     */
+    public boolean isReused() {
+        return reused;
+    }
+
+    /**
+     * Returns how the broker inside the Container manages its metadata.
+     *
+     * @return Mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the policy applied when this Container is closed.
+     *
+     * @return ShutdownPolicy
+     */
+    public ShutdownPolicy getShutdownPolicy() {
+        return shutdownPolicy;
+    }
+
+    /**
+     * Returns whether this Container is held by the {@link LocalKafkaContainerRegistry}
+     * and shared by all Application Contexts with the same configuration.
+     *
+     * @return boolean
+     */
+    public boolean isShared() {
+        return registryKey != null;
+    }
+
+    LocalKafkaContainer withRegistryKey(final String registryKey) {
+        this.registryKey = registryKey;
+        return this;
+    }
+
+    String getRegistryKey() {
+        return registryKey;
+    }
+
+    /**
+     * Returns how long each phase of starting this Container took.
+     *
+     * @return LocalKafkaStartupTimings
+     */
+    public LocalKafkaStartupTimings getStartupTimings() {
+        return startupTimings;
+    }
+
+    /**
+     * Returns a Future that completes once the Container has started and
+     * the broker is ready, or completes exceptionally if it failed to start.
+     *
+     * @return CompletableFuture
+     */
+    public CompletableFuture<LocalKafkaContainer> getStartup() {
+        return startup;
+    }
+
+    /**
+     * Waits until a Container started on a background thread is ready.
+     * Returns immediately if the Container was started synchronously.
+     */
+    public void awaitStartup() {
+        if (startupThread == null || Thread.currentThread() == startupThread) {
+            return;
+        }
+        try {
+            startup.get();
+        } catch (final ExecutionException e) {
+            throw new ContainerLaunchException("Kafka container failed to start.", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while waiting for Kafka container to start.", e);
+        }
+    }
+
+    /**
+     * Starts the Container, on a background thread if asynchronous startup
+     * is set. Does nothing if the Container is already started or starting,
+     * since Spring Boot starts Container Beans once more after they are
+     * created, which would otherwise restart the startup timings and every
+     * companion Container.
+     */
+    @Override
+    public synchronized void start() {
+        if (startup.isDone() || startupThread != null || getContainerId() != null) {
+            return;
+        }
+        if (asyncStartup && fixedKafkaPort == null) {
+            logger.warn("Starting Kafka container synchronously, since asynchronous startup requires a fixed Kafka port.");
+        }
+        if (!asyncStartup || fixedKafkaPort == null) {
+            try {
+                timedStart();
+                startup.complete(this);
+            } catch (final RuntimeException e) {
+                startup.completeExceptionally(e);
+                throw e;
+            }
+            return;
+        }
+        startupThread = new Thread(() -> {
+            try {
+                startOnFixedPort();
+                startup.complete(this);
+            } catch (final RuntimeException e) {
+                logger.error("Could not start Kafka container.", e);
+                startup.completeExceptionally(e);
+            }
+        }, "local-kafka-startup");
+        startupThread.setDaemon(true);
+        startupThread.start();
+    }
+
+    @Override
+    protected void configure() {
+        if (peerOf != null && mode == Mode.ZOOKEEPER) {
+            externalZookeeperConnect = peerOf + ":" + ZOOKEEPER_PORT;
+        }
+        super.configure();
+        if (brokerId != null) {
+            withEnv("KAFKA_BROKER_ID", String.valueOf(brokerId));
+            if (mode == Mode.KRAFT) {
+                withEnv("KAFKA_NODE_ID", String.valueOf(brokerId));
+            }
+        }
+        if (peerOf != null && mode == Mode.KRAFT) {
+            withEnv("KAFKA_PROCESS_ROLES", "broker");
+            withEnv("KAFKA_CONTROLLER_QUORUM_VOTERS", CONTROLLER_BROKER_ID + "@" + peerOf + ":" + CONTROLLER_PORT);
+            withEnv("KAFKA_LISTENERS", Stream.of(getEnvMap().get("KAFKA_LISTENERS").split(","))
+                    .filter(listener -> !listener.startsWith("CONTROLLER:"))
+                    .collect(Collectors.joining(",")));
+        }
+        if (jmxPort != null) {
+            withEnv("KAFKA_JMX_OPTS", String.join(" ",
+                    "-Dcom.sun.management.jmxremote",
+                    "-Dcom.sun.management.jmxremote.authenticate=false",
+                    "-Dcom.sun.management.jmxremote.ssl=false",
+                    "-Dcom.sun.management.jmxremote.local.only=false",
+                    "-Dcom.sun.management.jmxremote.port=" + jmxPort,
+                    "-Dcom.sun.management.jmxremote.rmi.port=" + jmxPort,
+                    "-Djava.rmi.server.hostname=" + getHost()));
+        }
+        if (flightRecordingSettings != null) {
+            withEnv("KAFKA_OPTS", (Optional.ofNullable(getEnvMap().get("KAFKA_OPTS")).map(o -> o + " ").orElse(""))
+                    + "-XX:StartFlightRecording=settings=" + flightRecordingSettings
+                    + ",filename=" + FLIGHT_RECORDING_FILE + ",dumponexit=true");
+        }
+        if (tmpfsSize != null) {
+            final var options = "rw,mode=1777,size=" + tmpfsSize;
+            final var mounts = new LinkedHashMap<String, String>();
+            mounts.put(KAFKA_DATA_DIRECTORY, options);
+            if (mode == Mode.ZOOKEEPER) {
+                ZOOKEEPER_DATA_DIRECTORIES.forEach(directory -> mounts.put(directory, options));
+            }
+            withTmpFs(mounts);
+        }
+        if (dataDirectory != null) {
+            withFileSystemBind(dataDirectory.resolve(LocalKafkaDataDirectory.KAFKA_DIRECTORY).toString(),
+                    KAFKA_DATA_DIRECTORY, BindMode.READ_WRITE);
+            if (mode == Mode.ZOOKEEPER) {
+                withFileSystemBind(dataDirectory.resolve(LocalKafkaDataDirectory.ZOOKEEPER_DATA_DIRECTORY).toString(),
+                        ZOOKEEPER_DATA_DIRECTORIES.get(0), BindMode.READ_WRITE);
+                withFileSystemBind(dataDirectory.resolve(LocalKafkaDataDirectory.ZOOKEEPER_LOG_DIRECTORY).toString(),
+                        ZOOKEEPER_DATA_DIRECTORIES.get(1), BindMode.READ_WRITE);
+            }
+            final var command = getCommandParts().clone();
+            if (!command[command.length - 1].startsWith("umask")) {
+                command[command.length - 1] = "umask 0000; " + command[command.length - 1];
+                setCommandParts(command);
+            }
+        }
+    }
+
+    /**
+     * Keeps the JMX and JVM options meant for the broker away from ZooKeeper,
+     * which is started with the same script and environment, so that the two
+     * do not compete for the JMX port or the flight recording.
+     */
+    @Override
+    protected String commandZookeeper() {
+        if (jmxPort == null && flightRecordingSettings == null) {
+            return super.commandZookeeper();
+        }
+        return super.commandZookeeper()
+                .replace("zookeeper-server-start", "env -u KAFKA_JMX_OPTS -u KAFKA_OPTS zookeeper-server-start");
+    }
+
+    /**
+     * Starts the Container on its fixed Kafka port, retrying if another process
+     * takes the port between when it was found free and when Docker binds it.
+     * The port is not changed, since the bootstrap servers URL built from it
+     * has already been handed out to Kafka clients, so the retries only get
+     * past another process that holds the port briefly, such as one probing
+     * for a free port of its own.
+     */
+    private void startOnFixedPort() {
+        for (var attempt = 1; ; attempt++) {
+            try {
+                timedStart();
+                return;
+            } catch (final RuntimeException e) {
+                if (attempt == PORT_BIND_ATTEMPTS || !isPortConflict(e)) {
+                    throw e;
+                }
+                logger.warn("Host port {} was taken before the Kafka container could bind it, retrying ({} of {}).",
+                        fixedKafkaPort, attempt, PORT_BIND_ATTEMPTS - 1);
+                // removes the Container that could not start, so that the next attempt creates a new one
+                super.stop();
+                LockSupport.parkNanos(PORT_BIND_RETRY_DELAY.toNanos() * attempt);
+            }
+        }
+    }
+
+    private static boolean isPortConflict(final Throwable exception) {
+        return Stream.iterate(exception, Objects::nonNull, Throwable::getCause)
+                .map(Throwable::getMessage)
+                .filter(Objects::nonNull)
+                .map(message -> message.toLowerCase(Locale.ROOT))
+                .anyMatch(message -> message.contains("port is already allocated")
+                        || message.contains("address already in use"));
+    }
+
+    private void timedStart() {
+        startupTimings.begin();
+        LocalKafkaImagePuller.awaitPull(dockerImageName);
+        getDockerImageName();
+        startupTimings.complete(Phase.PULL);
+        Optional.ofNullable(dataDirectory).ifPresent(LocalKafkaDataDirectory::prepare);
+        Optional.ofNullable(networkProxy).ifPresent(GenericContainer::start);
+        if (schemaRegistry != null) {
+            // the Schema Registry retries until the broker is up, so its image
+            // is pulled and its JVM started while the broker starts
+            schemaRegistryStartup = CompletableFuture.runAsync(schemaRegistry::start);
+        }
+        super.start();
+    }
+
+    @Override
+    public String getBootstrapServers() {
+        if (startupThread != null && !startup.isDone() && Thread.currentThread() != startupThread) {
+            return String.format("PLAINTEXT://%s:%s", getHost(), fixedKafkaPort);
+        }
+        return Stream.concat(
+                        Stream.of(networkProxy != null
+                                ? networkProxy.getBootstrapServers()
+                                : super.getBootstrapServers()),
+                        peers.stream()
+                                .filter(peer -> peer.getContainerId() != null)
+                                .map(KafkaContainer::getBootstrapServers))
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public Integer getMappedPort(final int originalPort) {
+        awaitStartup();
+        return super.getMappedPort(originalPort);
+    }
+
+    /**
+     * Overridden only to record when the Container was created, which does not
+     * affect whether the Container can be reused, unlike other overrides.
+     */
+    @Override
+    protected boolean canBeReused() {
+        return true;
+    }
+
+    @Override
+    protected void containerIsCreated(final String containerId) {
+        super.containerIsCreated(containerId);
+        startupTimings.complete(Phase.CREATE);
+    }
+
+    @Override
+    protected void containerIsStarted(final InspectContainerResponse containerInfo,
+                                      final boolean reused) {
+        super.containerIsStarted(containerInfo, reused);
+        startupTimings.complete(Phase.START);
+        this.reused = reused;
+        if (!peers.isEmpty()) {
+            startPeers();
+            startupTimings.complete(Phase.PEERS);
+        }
+        awaitReadiness();
+        awaitSchemaRegistry();
+        if (snapshot != null) {
+            if (snapshot.isPresent()) {
+                logger.info("Started container {} from snapshot {} in {} ms, {} ms faster than the cold start.",
+                        getContainerName(), snapshot.getImage().asCanonicalNameString(),
+                        startupTimings.getTotal().toMillis(),
+                        snapshot.getColdStartup().minus(startupTimings.getTotal()).toMillis());
+            } else if (!reused) {
+                snapshot.take(this, startupTimings.getTotal());
+            }
+        }
+    }
+
+    private void awaitReadiness() {
+        if (!(reused && wipeOnReuse) && !readinessProbe && topics.isEmpty() && peers.isEmpty()) {
+            return;
+        }
+        try (final var admin = Admin.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, getBootstrapServers()))) {
+            if (!peers.isEmpty()) {
+                Unreliables.retryUntilTrue((int) ADMIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS, () ->
+                        admin.describeCluster().nodes().get().size() == peers.size() + 1);
+                startupTimings.complete(Phase.FIRST_METADATA);
+            } else if (readinessProbe) {
+                admin.describeCluster().nodes()
+                        .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                startupTimings.complete(Phase.FIRST_METADATA);
+            }
+            if (reused && wipeOnReuse) {
+                wipe(admin);
+            }
+            if (!topics.isEmpty()) {
+                createTopics(admin, topics.stream().map(LocalKafkaTopic::toNewTopic).toList());
+                startupTimings.complete(Phase.TOPIC_READY);
+                logger.info("Created {} topic(s) in container {}.", topics.size(), getContainerName());
+            } else if (readinessProbe) {
+                createTopics(admin, List.of(new NewTopic(PROBE_TOPIC, Optional.of(1), Optional.empty())));
+                startupTimings.complete(Phase.TOPIC_READY);
+                admin.deleteTopics(List.of(PROBE_TOPIC));
+            }
+        } catch (final ExecutionException | TimeoutException e) {
+            throw new ContainerLaunchException("Kafka container did not become ready.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while waiting for Kafka container to become ready.", e);
+        }
+    }
+
+    private void awaitSchemaRegistry() {
+        if (schemaRegistry == null) {
+            return;
+        }
+        try {
+            schemaRegistryStartup.join();
+        } catch (final CompletionException e) {
+            throw new ContainerLaunchException("Schema Registry container failed to start.", e.getCause());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (startupThread != null) {
+            startup.exceptionally(e -> null).join();
+        }
+        if (isShared() && !LocalKafkaContainerRegistry.getInstance().release(this)) {
+            return;
+        }
+        if (isShouldBeReused() && shutdownPolicy == ShutdownPolicy.KEEP) {
+            logger.info("Leaving reusable container {} running.", getContainerName());
+            return;
+        }
+        if ((flightRecordingSettings != null || dataDirectory != null) && isRunning()) {
+            shutdownBroker();
+        }
+        if (flightRecordingSettings != null) {
+            captureFlightRecording();
+        }
+        if (schemaRegistry != null) {
+            schemaRegistryStartup.exceptionally(e -> null).join();
+            schemaRegistry.stop();
+        }
+        peers.parallelStream().forEach(GenericContainer::stop);
+        super.stop();
+        Optional.ofNullable(networkProxy).ifPresent(GenericContainer::stop);
+        if (!peers.isEmpty() || networkProxy != null || schemaRegistry != null) {
+            Optional.ofNullable(getNetwork()).ifPresent(Network::close);
+        }
+    }
+
+    /**
+     * Shuts the broker JVM down gracefully, which dumps the flight recording,
+     * closes log segments cleanly and deregisters the broker from ZooKeeper,
+     * and waits for the Container to exit, which it does with the broker.
+     */
+    private void shutdownBroker() {
+        try {
+            execInContainer("sh", "-c",
+                    "for p in /proc/[0-9]*; do grep -q 'kafka[.]Kafka' $p/cmdline 2>/dev/null && kill -TERM ${p#/proc/}; done");
+        } catch (final IOException | RuntimeException e) {
+            logger.debug("Container exited while the broker was being shut down.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            Unreliables.retryUntilTrue((int) SHUTDOWN_TIMEOUT.toSeconds(), TimeUnit.SECONDS, () -> !isRunning());
+        } catch (final RuntimeException e) {
+            logger.warn("Broker in container {} did not shut down gracefully.", getContainerName(), e);
+        }
+    }
+
+    private void captureFlightRecording() {
+        try {
+            Files.createDirectories(flightRecordingDirectory);
+            final var target = flightRecordingDirectory.resolve("kafka-" + getContainerId().substring(0, 12) + "-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr");
+            copyFileFromContainer(FLIGHT_RECORDING_FILE, target.toString());
+            flightRecording = target;
+            logger.info("Copied flight recording of the broker to {}.", target.toAbsolutePath());
+        } catch (final IOException | RuntimeException e) {
+            logger.warn("Could not capture flight recording of the broker.", e);
+        }
+    }
+
+    private void startPeers() {
+        try {
+            Startables.deepStart(peers).join();
+        } catch (final CompletionException e) {
+            throw new ContainerLaunchException("Kafka peer brokers failed to start.", e.getCause());
+        }
+        logger.info("Started {} peer broker(s) of container {}.", peers.size(), getContainerName());
+    }
+
+    private void wipe(final Admin admin) throws ExecutionException, InterruptedException, TimeoutException {
+        final var groups = admin.listConsumerGroups().all()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).stream()
+                .map(ConsumerGroupListing::groupId)
+                .toList();
+        if (!groups.isEmpty()) {
+            try {
+                admin.deleteConsumerGroups(groups).all()
+                        .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (final ExecutionException e) {
+                if (!(e.getCause() instanceof GroupNotEmptyException)) {
+                    throw e;
+                }
+                logger.warn("Some consumer groups still have active members and were not deleted.");
+            }
+        }
+        final var topics = admin.listTopics().names()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        if (!topics.isEmpty()) {
+            admin.deleteTopics(topics).all()
+                    .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            Unreliables.retryUntilTrue((int) ADMIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS, () ->
+                    admin.listTopics().names().get().stream().noneMatch(topics::contains));
+        }
+        logger.info("Wiped {} topic(s) and {} consumer group(s) from reused container {}.",
+                topics.size(), groups.size(), getContainerName());
+    }
+
+    private void createTopics(final Admin admin,
+                              final List<NewTopic> newTopics) throws ExecutionException, InterruptedException, TimeoutException {
+        for (final var result : admin.createTopics(newTopics).values().values()) {
+            try {
+                result.get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (final ExecutionException e) {
+                if (!(e.getCause() instanceof TopicExistsException)) {
+                    throw e;
+                }
+            }
+        }
+        final var names = newTopics.stream().map(NewTopic::name).toList();
+        Unreliables.retryUntilTrue((int) ADMIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS, () ->
+                admin.describeTopics(names).allTopicNames().get().values().stream()
+                        .flatMap(description -> description.partitions().stream())
+                        .allMatch(partition -> partition.leader() != null && !partition.leader().isEmpty()));
+    }
+}
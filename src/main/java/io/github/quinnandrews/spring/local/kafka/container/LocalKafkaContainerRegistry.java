@@ -0,0 +1,162 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <p> Holds one started {@link LocalKafkaContainer} per distinct configuration
+ * for the lifetime of the JVM, so that Application Contexts with the same
+ * configuration share a single broker instead of each starting their own.
+ *
+ * <p> Keeps a count of the Application Contexts attached to each Container.
+ * A Container is stopped when the last Application Context attached to it
+ * closes, or when the JVM exits, whichever comes first.
+ *
+ * @author Quinn Andrews
+ */
+public final class LocalKafkaContainerRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaContainerRegistry.class);
+
+    private static final LocalKafkaContainerRegistry INSTANCE = new LocalKafkaContainerRegistry();
+
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private LocalKafkaContainerRegistry() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stopAll, "local-kafka-registry-shutdown"));
+    }
+
+    /**
+     * Returns the JVM-wide instance.
+     *
+     * @return LocalKafkaContainerRegistry
+     */
+    public static LocalKafkaContainerRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the Container registered with the given key, or creates, starts
+     * and registers one with the given factory if there is none, and counts
+     * one more Application Context as attached to it. Only callers with the
+     * same key wait for a Container that is starting; callers with other keys
+     * proceed, so that one slow start does not hold up every other configuration.
+     *
+     * @param key     The key identifying the configuration of the Container.
+     * @param factory Creates the Container when none is registered with the key.
+     * @return LocalKafkaContainer
+     */
+    public LocalKafkaContainer acquire(final String key,
+                                       final Supplier<LocalKafkaContainer> factory) {
+        while (true) {
+            final var created = new Registration();
+            final var registration = registrations.computeIfAbsent(key, k -> created);
+            if (registration == created) {
+                return start(key, registration, factory);
+            }
+            final LocalKafkaContainer container;
+            try {
+                container = registration.container.join();
+            } catch (final CompletionException e) {
+                // the caller that started the Container reports the failure as well
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            synchronized (registration) {
+                if (registration.references == 0) {
+                    // released and stopped while this caller waited, so start another
+                    continue;
+                }
+                registration.references++;
+                logger.info("Kafka container registry hit: attached to {} ({} context(s), hits: {}, misses: {}).",
+                        container.getContainerName(), registration.references, hits.incrementAndGet(), misses.get());
+            }
+            return container;
+        }
+    }
+
+    /**
+     * Returns how many times an Application Context was attached to a
+     * Container that was already registered.
+     *
+     * @return long
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many times a Container was started because none was
+     * registered with the configuration of an Application Context.
+     *
+     * @return long
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Counts one less Application Context as attached to the given Container.
+     *
+     * @param container The Container to release.
+     * @return true if no Application Context remains attached and the Container
+     *         should be stopped, false otherwise
+     */
+    boolean release(final LocalKafkaContainer container) {
+        final var registration = registrations.get(container.getRegistryKey());
+        if (registration == null || registration.container.getNow(null) != container) {
+            return true;
+        }
+        synchronized (registration) {
+            registration.references--;
+            if (registration.references > 0) {
+                logger.info("Kafka container {} still in use by {} context(s).",
+                        container.getContainerName(), registration.references);
+                return false;
+            }
+            registrations.remove(container.getRegistryKey(), registration);
+        }
+        return true;
+    }
+
+    private LocalKafkaContainer start(final String key,
+                                      final Registration registration,
+                                      final Supplier<LocalKafkaContainer> factory) {
+        try {
+            final var container = factory.get();
+            container.start();
+            container.withRegistryKey(key);
+            registration.container.complete(container);
+            logger.info("Kafka container registry miss: started {} (1 context(s), hits: {}, misses: {}).",
+                    container.getContainerName(), hits.get(), misses.incrementAndGet());
+            return container;
+        } catch (final RuntimeException e) {
+            registrations.remove(key, registration);
+            registration.container.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void stopAll() {
+        final var containers = new ArrayList<LocalKafkaContainer>();
+        registrations.values().forEach(r -> Optional.ofNullable(r.container.getNow(null)).ifPresent(containers::add));
+        registrations.clear();
+        containers.forEach(LocalKafkaContainer::stop);
+    }
+
+    private static final class Registration {
+
+        private final CompletableFuture<LocalKafkaContainer> container = new CompletableFuture<>();
+        private int references = 1;
+    }
+}
@@ -0,0 +1,259 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * <p> A directory of the host that holds the data of the broker, and of
+ * ZooKeeper when it runs in the Container, so that Topics and their records
+ * survive a restart of the Container. The data of the broker is kept in
+ * {@code kafka}, and the data of ZooKeeper in {@code zookeeper/data} and
+ * {@code zookeeper/log}.
+ *
+ * <p> The directory can be archived with {@link #snapshot(Path)} and brought
+ * back with {@link #restore(Path)}, which copies log segments as they are,
+ * and so is much faster than producing the same records again. Both are also
+ * available from the command line, while the broker is stopped:
+ * <pre>
+ * java -cp ... io.github.quinnandrews.spring.local.kafka.container.LocalKafkaDataDirectory snapshot target/kafka-data kafka-data.tar.gz
+ * java -cp ... io.github.quinnandrews.spring.local.kafka.container.LocalKafkaDataDirectory restore kafka-data.tar.gz target/kafka-data
+ * </pre>
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaDataDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaDataDirectory.class);
+
+    public static final String KAFKA_DIRECTORY = "kafka";
+    public static final String ZOOKEEPER_DATA_DIRECTORY = "zookeeper/data";
+    public static final String ZOOKEEPER_LOG_DIRECTORY = "zookeeper/log";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String LOCK_FILE = ".lock";
+
+    private final Path directory;
+    private final Path archive;
+
+    private LocalKafkaDataDirectory(final Path directory,
+                                    final Path archive) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.archive = archive;
+    }
+
+    /**
+     * Returns the data directory at the given path of the host.
+     *
+     * @param directory The directory of the host.
+     * @return LocalKafkaDataDirectory
+     */
+    public static LocalKafkaDataDirectory of(final Path directory) {
+        return new LocalKafkaDataDirectory(directory, null);
+    }
+
+    /**
+     * Returns the data directory at the given path of the host, which is
+     * restored from the given archive before the broker starts, if the
+     * directory is empty and the archive exists.
+     *
+     * @param directory The directory of the host.
+     * @param archive   An archive taken with {@link #snapshot(Path)}, or null for none.
+     * @return LocalKafkaDataDirectory
+     */
+    public static LocalKafkaDataDirectory of(final Path directory, final Path archive) {
+        return new LocalKafkaDataDirectory(directory, archive);
+    }
+
+    /**
+     * Returns the directory of the host.
+     *
+     * @return Path
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the directory of the host that holds the data at the given
+     * path, relative to this directory.
+     *
+     * @param path One of {@link #KAFKA_DIRECTORY}, {@link #ZOOKEEPER_DATA_DIRECTORY}
+     *             or {@link #ZOOKEEPER_LOG_DIRECTORY}.
+     * @return Path
+     */
+    public Path resolve(final String path) {
+        return directory.resolve(path);
+    }
+
+    /**
+     * Returns whether the directory holds no data yet.
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        if (!Files.isDirectory(directory)) {
+            return true;
+        }
+        try (final var files = Files.walk(directory)) {
+            return files.noneMatch(Files::isRegularFile);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not read data directory " + directory + ".", e);
+        }
+    }
+
+    /**
+     * Creates the directories that are mounted into the Container, restoring
+     * them from the archive first when they are empty. The Docker Images run
+     * the broker as a user that is unlikely to exist on the host, so new
+     * directories are made writable by everyone.
+     */
+    public void prepare() {
+        if (archive != null && Files.isRegularFile(archive) && isEmpty()) {
+            restore(archive);
+        }
+        for (final var path : List.of(KAFKA_DIRECTORY, ZOOKEEPER_DATA_DIRECTORY, ZOOKEEPER_LOG_DIRECTORY)) {
+            if (Files.isDirectory(resolve(path))) {
+                continue;
+            }
+            try {
+                makeWritable(Files.createDirectories(resolve(path)));
+                makeWritable(resolve(path).getParent());
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Could not create data directory " + resolve(path) + ".", e);
+            }
+        }
+    }
+
+    /**
+     * Archives the directory as a gzipped tar file, compressed for speed
+     * rather than size. The broker must be stopped, so that log segments
+     * are complete and their indexes trimmed.
+     *
+     * @param target The archive to write.
+     * @return The size of the archive in bytes.
+     */
+    public long snapshot(final Path target) {
+        final var begin = System.nanoTime();
+        final var parameters = new GzipParameters();
+        parameters.setCompressionLevel(Deflater.BEST_SPEED);
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (final var files = Files.walk(directory);
+                 final var out = new TarArchiveOutputStream(new GzipCompressorOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE), parameters))) {
+                out.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                out.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+                for (final var file : (Iterable<Path>) files.filter(Files::isRegularFile)
+                        .filter(file -> !file.getFileName().toString().equals(LOCK_FILE))::iterator) {
+                    out.putArchiveEntry(new TarArchiveEntry(file, directory.relativize(file).toString()));
+                    Files.copy(file, out);
+                    out.closeArchiveEntry();
+                }
+            }
+            final var size = Files.size(target);
+            logger.info("Archived data directory {} to {} ({} bytes) in {} ms.",
+                    directory, target.toAbsolutePath(), size, Duration.ofNanos(System.nanoTime() - begin).toMillis());
+            return size;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not archive data directory " + directory + ".", e);
+        }
+    }
+
+    /**
+     * Replaces the contents of the directory with the contents of an archive
+     * taken with {@link #snapshot(Path)}. The broker must be stopped.
+     *
+     * @param source The archive to extract.
+     * @return The number of files extracted.
+     */
+    public long restore(final Path source) {
+        final var begin = System.nanoTime();
+        try {
+            delete();
+            Files.createDirectories(directory);
+            var files = 0L;
+            try (final var in = new TarArchiveInputStream(new GzipCompressorInputStream(
+                    new BufferedInputStream(Files.newInputStream(source), BUFFER_SIZE)))) {
+                for (var entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                    final var file = directory.resolve(entry.getName()).normalize();
+                    if (!file.startsWith(directory)) {
+                        throw new IOException("Archive entry " + entry.getName() + " is outside of the data directory.");
+                    }
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(file);
+                        continue;
+                    }
+                    Files.createDirectories(file.getParent());
+                    Files.copy(in, file);
+                    makeWritable(file);
+                    files++;
+                }
+            }
+            try (final var directories = Files.walk(directory)) {
+                for (final var path : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                    makeWritable(path);
+                }
+            }
+            logger.info("Restored {} file(s) from {} to data directory {} in {} ms.",
+                    files, source.toAbsolutePath(), directory, Duration.ofNanos(System.nanoTime() - begin).toMillis());
+            return files;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not restore data directory " + directory + " from " + source + ".", e);
+        }
+    }
+
+    private void delete() throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            for (final var path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())
+                    .filter(path -> !path.equals(directory))::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void makeWritable(final Path path) throws IOException {
+        if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(
+                    Files.isDirectory(path) ? "rwxrwxrwx" : "rw-rw-rw-"));
+        }
+    }
+
+    /**
+     * Archives or restores a data directory from the command line.
+     *
+     * @param args {@code snapshot <directory> <archive>} or {@code restore <archive> <directory>}.
+     */
+    public static void main(final String[] args) {
+        if (args.length == 3 && args[0].equals("snapshot")) {
+            of(Path.of(args[1])).snapshot(Path.of(args[2]));
+        } else if (args.length == 3 && args[0].equals("restore")) {
+            of(Path.of(args[2])).restore(Path.of(args[1]));
+        } else {
+            System.err.println("Usage: LocalKafkaDataDirectory snapshot <directory> <archive>");
+            System.err.println("       LocalKafkaDataDirectory restore <archive> <directory>");
+            System.exit(1);
+        }
+    }
+}
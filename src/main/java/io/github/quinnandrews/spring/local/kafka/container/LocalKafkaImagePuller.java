@@ -0,0 +1,106 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.images.RemoteDockerImage;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p> Pulls Docker Images on a background thread, so that a first run on a
+ * host without the Image locally does not block while it downloads. Also
+ * connects to Docker for the first time, which takes a moment on its own.
+ * Each Image is pulled at most once per JVM, and a Container created with
+ * an Image that is being pulled waits for the pull to finish, rather than
+ * pulling it a second time.
+ *
+ * @author Quinn Andrews
+ */
+public final class LocalKafkaImagePuller {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaImagePuller.class);
+
+    private static final Map<String, CompletableFuture<Duration>> pulls = new ConcurrentHashMap<>();
+
+    private LocalKafkaImagePuller() {
+    }
+
+    /**
+     * Starts pulling the given Image on a background thread, unless it is
+     * already being pulled, and returns a Future that completes with how
+     * long the pull took.
+     *
+     * @param image The Docker Image to pull.
+     * @return CompletableFuture
+     */
+    public static CompletableFuture<Duration> pullInBackground(final DockerImageName image) {
+        return pullInBackground(image, null);
+    }
+
+    /**
+     * Starts pulling the given Image on a background thread, unless it is
+     * already being pulled, or a snapshot of it with the given configuration
+     * has already been taken, in which case the snapshot starts instead of
+     * the Image. Whether the snapshot exists is checked on the background
+     * thread as well, since it connects to Docker. Returns a Future that
+     * completes with how long the pull took, or with null if it was skipped.
+     *
+     * @param image                 The Docker Image to pull.
+     * @param snapshotConfiguration The configuration of the snapshot to look for, or null if none is used.
+     * @return CompletableFuture
+     */
+    public static CompletableFuture<Duration> pullInBackground(final DockerImageName image,
+                                                               final String snapshotConfiguration) {
+        return pulls.computeIfAbsent(image.asCanonicalNameString(), name -> {
+            final var pull = new CompletableFuture<Duration>();
+            final var thread = new Thread(() -> {
+                final var begin = System.nanoTime();
+                try {
+                    if (snapshotConfiguration != null
+                            && LocalKafkaSnapshot.of(image, snapshotConfiguration).isPresent()) {
+                        logger.info("Skipped pulling image {} in the background, since a snapshot of it exists.", name);
+                        pull.complete(null);
+                        return;
+                    }
+                    new RemoteDockerImage(image).get();
+                    final var duration = Duration.ofNanos(System.nanoTime() - begin);
+                    logger.info("Pulled image {} in the background in {} ms.", name, duration.toMillis());
+                    pull.complete(duration);
+                } catch (final RuntimeException e) {
+                    logger.warn("Could not pull image {} in the background.", name, e);
+                    pull.completeExceptionally(e);
+                }
+            }, "local-kafka-image-pull");
+            thread.setDaemon(true);
+            thread.start();
+            return pull;
+        });
+    }
+
+    /**
+     * Returns the background pull of the given Image, or null if none was started.
+     *
+     * @param image The Docker Image.
+     * @return CompletableFuture
+     */
+    static CompletableFuture<Duration> getPull(final DockerImageName image) {
+        return pulls.get(image.asCanonicalNameString());
+    }
+
+    /**
+     * Waits for a background pull of the given Image to finish, if one was
+     * started. A failed pull is ignored, so that pulling the Image again when
+     * the Container starts reports the failure.
+     *
+     * @param image The Docker Image being pulled.
+     */
+    static void awaitPull(final DockerImageName image) {
+        Optional.ofNullable(pulls.get(image.asCanonicalNameString()))
+                .ifPresent(pull -> pull.exceptionally(e -> null).join());
+    }
+}
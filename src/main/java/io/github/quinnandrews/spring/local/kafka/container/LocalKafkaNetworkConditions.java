@@ -0,0 +1,39 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * <p> The network conditions to simulate between clients and the broker.
+ *
+ * @param latency            The latency added in each direction, or null for none.
+ * @param jitter             The random variation of the latency, or null for none.
+ * @param bandwidth          The bandwidth per second in each direction, or null for unlimited.
+ * @param disconnectInterval How often to disconnect all clients, or null to never disconnect them.
+ * @param disconnectDuration How long clients stay disconnected, or null for one second.
+ *
+ * @author Quinn Andrews
+ */
+public record LocalKafkaNetworkConditions(Duration latency,
+                                          Duration jitter,
+                                          DataSize bandwidth,
+                                          Duration disconnectInterval,
+                                          Duration disconnectDuration) {
+
+    public LocalKafkaNetworkConditions {
+        latency = Optional.ofNullable(latency).orElse(Duration.ZERO);
+        jitter = Optional.ofNullable(jitter).orElse(Duration.ZERO);
+        disconnectDuration = Optional.ofNullable(disconnectDuration).orElse(Duration.ofSeconds(1));
+    }
+
+    /**
+     * Returns conditions that add nothing to the network.
+     *
+     * @return LocalKafkaNetworkConditions
+     */
+    public static LocalKafkaNetworkConditions none() {
+        return new LocalKafkaNetworkConditions(null, null, null, null, null);
+    }
+}
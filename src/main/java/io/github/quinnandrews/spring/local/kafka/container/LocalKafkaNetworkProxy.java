@@ -0,0 +1,192 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> Runs Toxiproxy in a Docker Container between clients and a broker on
+ * the same Docker network, to simulate the latency, jitter, bandwidth and
+ * disconnects of a real network on a single host. The broker advertises the
+ * address of the proxy, so that every connection, not only the first one,
+ * passes through it.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaNetworkProxy extends GenericContainer<LocalKafkaNetworkProxy> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaNetworkProxy.class);
+
+    public static final String DEFAULT_IMAGE = "ghcr.io/shopify/toxiproxy:2.5.0";
+
+    private static final int API_PORT = 8474;
+    private static final int PROXY_PORT = 8666;
+    private static final String PROXY_NAME = "kafka";
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LocalKafkaNetworkConditions conditions = LocalKafkaNetworkConditions.none();
+    private String upstream;
+    private ScheduledExecutorService disconnects;
+
+    /**
+     * Constructs an instance with the given Docker Image.
+     *
+     * @param dockerImageName The Docker Image of Toxiproxy.
+     */
+    public LocalKafkaNetworkProxy(final DockerImageName dockerImageName) {
+        super(dockerImageName);
+        withExposedPorts(API_PORT, PROXY_PORT);
+        waitingFor(Wait.forHttp("/version").forPort(API_PORT));
+    }
+
+    /**
+     * Sets the network conditions to simulate.
+     *
+     * @param conditions The network conditions.
+     * @return this Container
+     */
+    public LocalKafkaNetworkProxy withConditions(final LocalKafkaNetworkConditions conditions) {
+        this.conditions = conditions;
+        return this;
+    }
+
+    /**
+     * Sets the address on the Docker network that connections are forwarded to.
+     *
+     * @param upstream The address of the broker (example: {@code kafka-1:9093}).
+     * @return this Container
+     */
+    public LocalKafkaNetworkProxy withUpstream(final String upstream) {
+        this.upstream = upstream;
+        return this;
+    }
+
+    /**
+     * Returns the network conditions simulated by this proxy.
+     *
+     * @return LocalKafkaNetworkConditions
+     */
+    public LocalKafkaNetworkConditions getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Returns the address of the proxy in the format expected by Kafka clients.
+     *
+     * @return String
+     */
+    public String getBootstrapServers() {
+        return String.format("PLAINTEXT://%s:%s", getHost(), getMappedPort(PROXY_PORT));
+    }
+
+    /**
+     * Closes all connections through the proxy and refuses new ones,
+     * until {@link #reconnect()} is called.
+     */
+    public void disconnect() {
+        post("/proxies/" + PROXY_NAME, Map.of("enabled", false));
+    }
+
+    /**
+     * Accepts connections through the proxy again after {@link #disconnect()}.
+     */
+    public void reconnect() {
+        post("/proxies/" + PROXY_NAME, Map.of("enabled", true));
+    }
+
+    @Override
+    protected void containerIsStarted(final InspectContainerResponse containerInfo) {
+        super.containerIsStarted(containerInfo);
+        post("/proxies", Map.of(
+                "name", PROXY_NAME,
+                "listen", "0.0.0.0:" + PROXY_PORT,
+                "upstream", upstream,
+                "enabled", true));
+        for (final var stream : new String[] {"upstream", "downstream"}) {
+            if (!conditions.latency().isZero() || !conditions.jitter().isZero()) {
+                addToxic("latency_" + stream, "latency", stream, Map.of(
+                        "latency", conditions.latency().toMillis(),
+                        "jitter", conditions.jitter().toMillis()));
+            }
+            Optional.ofNullable(conditions.bandwidth()).ifPresent(bandwidth ->
+                    addToxic("bandwidth_" + stream, "bandwidth", stream, Map.of(
+                            "rate", Math.max(1, bandwidth.toKilobytes()))));
+        }
+        Optional.ofNullable(conditions.disconnectInterval()).ifPresent(interval -> {
+            disconnects = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final var thread = new Thread(runnable, "local-kafka-network-disconnects");
+                thread.setDaemon(true);
+                return thread;
+            });
+            disconnects.scheduleAtFixedRate(() -> {
+                logger.info("Disconnecting Kafka clients for {} ms.", conditions.disconnectDuration().toMillis());
+                disconnect();
+                disconnects.schedule(this::reconnect, conditions.disconnectDuration().toMillis(), TimeUnit.MILLISECONDS);
+            }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        });
+        logger.info("Proxying Kafka through {} with latency {} ms, jitter {} ms, bandwidth {} and disconnects {}.",
+                getBootstrapServers(),
+                conditions.latency().toMillis(),
+                conditions.jitter().toMillis(),
+                Optional.ofNullable(conditions.bandwidth()).map(b -> b.toKilobytes() + " KB/s").orElse("unlimited"),
+                Optional.ofNullable(conditions.disconnectInterval()).map(i -> "every " + i.toMillis() + " ms").orElse("never"));
+    }
+
+    @Override
+    public void stop() {
+        Optional.ofNullable(disconnects).ifPresent(ScheduledExecutorService::shutdownNow);
+        super.stop();
+    }
+
+    private void addToxic(final String name,
+                          final String type,
+                          final String stream,
+                          final Map<String, Object> attributes) {
+        post("/proxies/" + PROXY_NAME + "/toxics", Map.of(
+                "name", name,
+                "type", type,
+                "stream", stream,
+                "toxicity", 1.0,
+                "attributes", attributes));
+    }
+
+    private void post(final String path, final Map<String, Object> body) {
+        try {
+            final var response = httpClient.send(HttpRequest.newBuilder()
+                            .uri(URI.create(String.format("http://%s:%s%s", getHost(), getMappedPort(API_PORT), path)))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new ContainerLaunchException("Toxiproxy rejected " + path + ": " + response.body());
+            }
+        } catch (final JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not reach Toxiproxy.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while configuring Toxiproxy.", e);
+        }
+    }
+}
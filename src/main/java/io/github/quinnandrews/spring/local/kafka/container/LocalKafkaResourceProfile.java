@@ -0,0 +1,79 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+/**
+ * <p> Predefined resource limits and JVM options for the broker, applied
+ * unless limits or options are configured explicitly, which take precedence.
+ *
+ * @author Quinn Andrews
+ */
+public enum LocalKafkaResourceProfile {
+
+    /**
+     * Runs the Container without resource limits, and the broker with the
+     * heap and JVM options of the Docker Image.
+     */
+    DEFAULT(null, null, null, null),
+
+    /**
+     * Limits the Container to one CPU and 1 GB of memory, and runs the broker
+     * (and ZooKeeper, when it is running, since it shares the heap options)
+     * with a small, fixed heap, the serial garbage collector and only the
+     * C1 compiler, so that many brokers can run on one host with predictable
+     * latency.
+     */
+    LOW_FOOTPRINT(1.0,
+            1024L * 1024L * 1024L,
+            "-Xms256m -Xmx256m",
+            "-server -XX:+UseSerialGC -XX:TieredStopAtLevel=1 -Xss512k -Djava.awt.headless=true");
+
+    private final Double cpus;
+    private final Long memory;
+    private final String heapOpts;
+    private final String jvmPerformanceOpts;
+
+    LocalKafkaResourceProfile(final Double cpus,
+                              final Long memory,
+                              final String heapOpts,
+                              final String jvmPerformanceOpts) {
+        this.cpus = cpus;
+        this.memory = memory;
+        this.heapOpts = heapOpts;
+        this.jvmPerformanceOpts = jvmPerformanceOpts;
+    }
+
+    /**
+     * Returns the number of CPUs the Container may use, or null if unlimited.
+     *
+     * @return Double
+     */
+    public Double getCpus() {
+        return cpus;
+    }
+
+    /**
+     * Returns the memory limit of the Container in bytes, or null if unlimited.
+     *
+     * @return Long
+     */
+    public Long getMemory() {
+        return memory;
+    }
+
+    /**
+     * Returns the value of {@code KAFKA_HEAP_OPTS}, or null to use the default.
+     *
+     * @return String
+     */
+    public String getHeapOpts() {
+        return heapOpts;
+    }
+
+    /**
+     * Returns the value of {@code KAFKA_JVM_PERFORMANCE_OPTS}, or null to use the default.
+     *
+     * @return String
+     */
+    public String getJvmPerformanceOpts() {
+        return jvmPerformanceOpts;
+    }
+}
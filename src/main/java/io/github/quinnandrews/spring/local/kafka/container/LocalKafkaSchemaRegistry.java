@@ -0,0 +1,94 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * <p> Runs the Confluent Schema Registry in a Docker Container next to a
+ * broker on the same Docker network, so that records can be serialized with
+ * Avro, Protobuf or JSON Schema, as in production, rather than as plain JSON.
+ * The Schema Registry keeps its schemas in the {@code _schemas} Topic of the
+ * broker, which it reaches through the internal listener of the broker.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaSchemaRegistry extends GenericContainer<LocalKafkaSchemaRegistry> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaSchemaRegistry.class);
+
+    public static final String DEFAULT_IMAGE = "confluentinc/cp-schema-registry:7.4.0";
+
+    public static final int PORT = 8081;
+
+    private static final String NETWORK_ALIAS = "schema-registry";
+    private static final int BROKER_LISTENER_PORT = 9092;
+    private static final String KAFKA_IMAGE = "confluentinc/cp-kafka";
+    private static final String SCHEMA_REGISTRY_IMAGE = "confluentinc/cp-schema-registry";
+
+    /**
+     * Constructs an instance with the given Docker Image.
+     *
+     * @param dockerImageName The Docker Image of the Schema Registry.
+     */
+    public LocalKafkaSchemaRegistry(final DockerImageName dockerImageName) {
+        super(dockerImageName);
+        withExposedPorts(PORT);
+        withNetworkAliases(NETWORK_ALIAS);
+        withEnv("SCHEMA_REGISTRY_HOST_NAME", NETWORK_ALIAS);
+        withEnv("SCHEMA_REGISTRY_LISTENERS", "http://0.0.0.0:" + PORT);
+        waitingFor(Wait.forHttp("/subjects")
+                .forPort(PORT)
+                .forStatusCode(200)
+                .withStartupTimeout(Duration.ofMinutes(2)));
+    }
+
+    /**
+     * Returns the Docker Image of the Schema Registry of the same Confluent
+     * Platform version as the given broker image, so that the two match, or
+     * the default image if the broker image is not a Confluent Platform one.
+     *
+     * @param kafkaImage The Docker Image of the broker.
+     * @return DockerImageName
+     */
+    public static DockerImageName imageFor(final DockerImageName kafkaImage) {
+        return Optional.of(kafkaImage)
+                .filter(image -> image.getUnversionedPart().equals(KAFKA_IMAGE))
+                .map(image -> DockerImageName.parse(SCHEMA_REGISTRY_IMAGE).withTag(image.getVersionPart()))
+                .orElseGet(() -> DockerImageName.parse(DEFAULT_IMAGE));
+    }
+
+    /**
+     * Sets the broker that schemas are stored in, through its internal
+     * listener on the Docker network the two share.
+     *
+     * @param networkAlias The network alias of the broker (example: {@code kafka-1}).
+     * @return this Container
+     */
+    public LocalKafkaSchemaRegistry withBroker(final String networkAlias) {
+        return withEnv("SCHEMA_REGISTRY_KAFKASTORE_BOOTSTRAP_SERVERS",
+                "PLAINTEXT://" + networkAlias + ":" + BROKER_LISTENER_PORT);
+    }
+
+    /**
+     * Returns the URL of the Schema Registry, as expected by the
+     * {@code schema.registry.url} property of Confluent serializers.
+     *
+     * @return String
+     */
+    public String getUrl() {
+        return String.format("http://%s:%s", getHost(), getMappedPort(PORT));
+    }
+
+    @Override
+    protected void containerIsStarted(final InspectContainerResponse containerInfo) {
+        super.containerIsStarted(containerInfo);
+        logger.info("Started Schema Registry at {}.", getUrl());
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Frame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p> A local Docker Image committed from a broker that has been started once
+ * with a given configuration, including the Topics it created. Starting from
+ * this Image skips formatting storage, registering the broker for the first
+ * time and creating Topics. The Image is named after a hash of the configuration,
+ * so any change to the configuration leads to a new snapshot being taken, and
+ * keeps the tag of the Image it was taken from, so that version checks keep
+ * working (example: {@code spring-local-kafka/snapshot-3fa9b2c41d0e:7.4.0}).
+ *
+ * <p> Docker does not include volumes in committed Images, so a broker that
+ * is snapshotted keeps its data in {@value #LOG_DIRECTORY}, the default of
+ * Kafka itself, rather than in the volume declared by the Confluent Images.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaSnapshot.class);
+
+    public static final String REPOSITORY_PREFIX = "spring-local-kafka/snapshot-";
+    public static final String LOG_DIRECTORY = "/tmp/kafka-logs";
+
+    private static final String COLD_STARTUP_LABEL = "io.github.quinnandrews.spring.local.kafka.cold-startup-millis";
+    private static final String STARTER_SCRIPT = "/testcontainers_start.sh";
+
+    private final DockerImageName image;
+    private final Duration coldStartup;
+
+    private LocalKafkaSnapshot(final DockerImageName image,
+                               final Duration coldStartup) {
+        this.image = image;
+        this.coldStartup = coldStartup;
+    }
+
+    /**
+     * Returns the snapshot of the given Image with the given configuration,
+     * whether it has been taken yet or not.
+     *
+     * @param sourceImage   The Docker Image the snapshot is taken from.
+     * @param configuration A description of the configuration of the broker.
+     * @return LocalKafkaSnapshot
+     */
+    public static LocalKafkaSnapshot of(final DockerImageName sourceImage,
+                                        final String configuration) {
+        final var hash = DigestUtils.md5DigestAsHex(
+                (sourceImage.asCanonicalNameString() + configuration).getBytes(StandardCharsets.UTF_8));
+        final var image = DockerImageName.parse(REPOSITORY_PREFIX + hash.substring(0, 12))
+                .withTag(sourceImage.getVersionPart())
+                .asCompatibleSubstituteFor(sourceImage);
+        try {
+            final var labels = DockerClientFactory.instance().client()
+                    .inspectImageCmd(image.asCanonicalNameString())
+                    .exec()
+                    .getConfig()
+                    .getLabels();
+            return new LocalKafkaSnapshot(image, Optional.ofNullable(labels)
+                    .map(l -> l.get(COLD_STARTUP_LABEL))
+                    .map(Long::valueOf)
+                    .map(Duration::ofMillis)
+                    .orElse(Duration.ZERO));
+        } catch (final NotFoundException e) {
+            return new LocalKafkaSnapshot(image, null);
+        }
+    }
+
+    /**
+     * Returns the name of the Docker Image of this snapshot.
+     *
+     * @return DockerImageName
+     */
+    public DockerImageName getImage() {
+        return image;
+    }
+
+    /**
+     * Returns whether this snapshot has already been taken.
+     *
+     * @return boolean
+     */
+    public boolean isPresent() {
+        return coldStartup != null;
+    }
+
+    /**
+     * Returns how long the start of the broker this snapshot was taken from
+     * took, or null if the snapshot has not been taken yet.
+     *
+     * @return Duration
+     */
+    public Duration getColdStartup() {
+        return coldStartup;
+    }
+
+    void take(final LocalKafkaContainer container, final Duration coldStartup) {
+        final var begin = System.nanoTime();
+        final var client = container.getDockerClient();
+        final var exec = client.execCreateCmd(container.getContainerId())
+                .withUser("root")
+                .withCmd("rm", "-f", STARTER_SCRIPT)
+                .exec();
+        try {
+            // the next Container must wait for its own starter script, which
+            // advertises its own port, so the script of this one is left out
+            client.execStartCmd(exec.getId())
+                    .exec(new ResultCallback.Adapter<Frame>())
+                    .awaitCompletion();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while taking a snapshot of the Kafka container.", e);
+        }
+        client.commitCmd(container.getContainerId())
+                .withRepository(image.getUnversionedPart())
+                .withTag(image.getVersionPart())
+                .withLabels(Map.of(
+                        COLD_STARTUP_LABEL, String.valueOf(coldStartup.toMillis()),
+                        // or the Image would be removed along with the Containers of this run
+                        DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL, ""))
+                .withPause(true)
+                .exec();
+        logger.info("Took snapshot {} of container {} in {} ms.",
+                image.asCanonicalNameString(), container.getContainerName(),
+                Duration.ofNanos(System.nanoTime() - begin).toMillis());
+    }
+}
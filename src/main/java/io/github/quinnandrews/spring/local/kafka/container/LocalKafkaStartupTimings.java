@@ -0,0 +1,108 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * <p> Records how long each phase of starting a {@link LocalKafkaContainer}
+ * takes, from pulling the Docker Image to the broker being ready to serve
+ * Topics. Phases that are skipped, such as creating the Container when an
+ * existing one is reused, are not recorded.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaStartupTimings {
+
+    /**
+     * The phases of starting a Container, in the order they occur.
+     */
+    public enum Phase {
+        /**
+         * Resolving the Docker Image, pulling it if it is not present locally.
+         */
+        PULL("pull"),
+        /**
+         * Creating the Docker Container.
+         */
+        CREATE("create"),
+        /**
+         * Starting the Docker Container and waiting for the broker to report
+         * that it has started.
+         */
+        START("start"),
+        /**
+         * Starting the other brokers of a cluster.
+         */
+        PEERS("peers"),
+        /**
+         * Waiting for the first response to a metadata request or, in a
+         * cluster, for every broker to have registered.
+         */
+        FIRST_METADATA("first-metadata"),
+        /**
+         * Waiting for a Topic to be created and its leader to be elected.
+         */
+        TOPIC_READY("topic-ready");
+
+        private final String tag;
+
+        Phase(final String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Returns the name of this phase as used in logs and metric tags.
+         *
+         * @return String
+         */
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private final Map<Phase, Duration> durations = Collections.synchronizedMap(new EnumMap<>(Phase.class));
+    private long begin;
+    private long last;
+
+    void begin() {
+        begin = System.nanoTime();
+        last = begin;
+    }
+
+    void complete(final Phase phase) {
+        final var now = System.nanoTime();
+        durations.put(phase, Duration.ofNanos(now - last));
+        last = now;
+    }
+
+    /**
+     * Returns the duration of each recorded phase.
+     *
+     * @return Map
+     */
+    public Map<Phase, Duration> getDurations() {
+        synchronized (durations) {
+            return Collections.unmodifiableMap(new EnumMap<>(durations));
+        }
+    }
+
+    /**
+     * Returns the time from the beginning of the first phase to the end of
+     * the last recorded phase.
+     *
+     * @return Duration
+     */
+    public Duration getTotal() {
+        return Duration.ofNanos(last - begin);
+    }
+
+    @Override
+    public String toString() {
+        return getDurations().entrySet().stream()
+                .map(e -> String.format("%s %.3f s", e.getKey().getTag(), e.getValue().toMillis() / 1000.0))
+                .collect(Collectors.joining(", ", "", String.format(" (total %.3f s)", getTotal().toMillis() / 1000.0)));
+    }
+}
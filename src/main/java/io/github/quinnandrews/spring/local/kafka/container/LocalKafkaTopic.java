@@ -0,0 +1,32 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import org.apache.kafka.clients.admin.NewTopic;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p> A Topic to create as soon as the broker is ready.
+ *
+ * @param name              The name of the Topic.
+ * @param partitions        The number of partitions, or null for the broker default.
+ * @param replicationFactor The replication factor, or null for the broker default.
+ * @param configs           The Topic configs (example: {@code cleanup.policy=compact}), or null for none.
+ *
+ * @author Quinn Andrews
+ */
+public record LocalKafkaTopic(String name,
+                              Integer partitions,
+                              Short replicationFactor,
+                              Map<String, String> configs) {
+
+    /**
+     * Returns the Admin Client representation of this Topic.
+     *
+     * @return NewTopic
+     */
+    public NewTopic toNewTopic() {
+        return new NewTopic(name, Optional.ofNullable(partitions), Optional.ofNullable(replicationFactor))
+                .configs(Optional.ofNullable(configs).orElse(Map.of()));
+    }
+}
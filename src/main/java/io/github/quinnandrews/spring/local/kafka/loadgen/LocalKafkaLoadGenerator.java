@@ -0,0 +1,282 @@
+package io.github.quinnandrews.spring.local.kafka.loadgen;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p> Sends synthetic records to one or more Topics, at a target rate or as
+ * fast as the broker accepts them, to put consumers under sustained load.
+ * Sends are pipelined: each is acknowledged through a callback rather than
+ * waited for, and only the number of records in flight is bounded, so that
+ * the producer batches as it would in production. Throughput and the
+ * latency of each send, from the call to {@code send} until it is
+ * acknowledged, are logged periodically and returned as a
+ * {@link LocalKafkaLoadReport} at the end of each run.
+ *
+ * <p> Started with the Application Context when auto-startup is set, or on
+ * demand with {@link #run()} or {@link #start()}.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaLoadGenerator implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaLoadGenerator.class);
+
+    private final Map<String, Object> producerConfigs;
+    private final List<String> topics;
+    private int rate = 1000;
+    private Long records;
+    private Duration duration;
+    private int maxInFlight = 10_000;
+    private Duration reportInterval = Duration.ofSeconds(5);
+    private LocalKafkaPayloadSupplier payloadSupplier = LocalKafkaPayloadSupplier.random(100);
+    private boolean autoStartup = false;
+    private volatile boolean stopRequested;
+    private volatile Thread thread;
+    private volatile LocalKafkaLoadReport lastReport;
+
+    /**
+     * Constructs an instance that sends to the given Topics, in turn,
+     * with a producer created from the given configuration.
+     *
+     * @param producerConfigs The configuration of the producer, including the bootstrap servers.
+     * @param topics          The Topics to send to.
+     */
+    public LocalKafkaLoadGenerator(final Map<String, Object> producerConfigs, final List<String> topics) {
+        if (topics.isEmpty()) {
+            throw new IllegalArgumentException("At least one Topic is needed to generate load.");
+        }
+        this.producerConfigs = Map.copyOf(producerConfigs);
+        this.topics = List.copyOf(topics);
+    }
+
+    /**
+     * Sets the target number of records per second, across all Topics.
+     * By default, it is 1000.
+     *
+     * @param rate The target rate, or 0 to send as fast as possible.
+     * @return this Load Generator
+     */
+    public LocalKafkaLoadGenerator withRate(final int rate) {
+        this.rate = rate;
+        return this;
+    }
+
+    /**
+     * Sets the number of records to send in each run.
+     *
+     * @param records The number of records, or null to send until stopped.
+     * @return this Load Generator
+     */
+    public LocalKafkaLoadGenerator withRecords(final Long records) {
+        this.records = records;
+        return this;
+    }
+
+    /**
+     * Sets how long each run sends records for.
+     *
+     * @param duration The length of each run, or null to send until stopped.
+     * @return this Load Generator
+     */
+    public LocalKafkaLoadGenerator withDuration(final Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of records sent but not yet acknowledged.
+     * Sending blocks when it is reached, until the broker catches up.
+     *
+     * @param maxInFlight The maximum number of records in flight.
+     * @return this Load Generator
+     */
+    public LocalKafkaLoadGenerator withMaxInFlight(final int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * Sets how often progress is logged during a run.
+     *
+     * @param reportInterval The interval between progress logs.
+     * @return this Load Generator
+     */
+    public LocalKafkaLoadGenerator withReportInterval(final Duration reportInterval) {
+        this.reportInterval = reportInterval;
+        return this;
+    }
+
+    /**
+     * Sets the supplier of the value of each record.
+     *
+     * @param payloadSupplier The supplier of record values.
+     * @return this Load Generator
+     */
+    public LocalKafkaLoadGenerator withPayloadSupplier(final LocalKafkaPayloadSupplier payloadSupplier) {
+        this.payloadSupplier = payloadSupplier;
+        return this;
+    }
+
+    /**
+     * Sets whether a run is started on a background thread when the
+     * Application Context starts.
+     *
+     * @param autoStartup Whether to start with the Application Context.
+     * @return this Load Generator
+     */
+    public LocalKafkaLoadGenerator withAutoStartup(final boolean autoStartup) {
+        this.autoStartup = autoStartup;
+        return this;
+    }
+
+    /**
+     * Returns the report of the last run that completed, if any.
+     *
+     * @return LocalKafkaLoadReport
+     */
+    public LocalKafkaLoadReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Sends records on the calling thread until the configured number of
+     * records or duration is reached, or until {@link #stop()} is called,
+     * and waits for all of them to be acknowledged.
+     *
+     * @return LocalKafkaLoadReport
+     */
+    public LocalKafkaLoadReport run() {
+        stopRequested = false;
+        return generate();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (isRunning()) {
+            return;
+        }
+        stopRequested = false;
+        thread = new Thread(this::generate, "local-kafka-loadgen");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+        Optional.ofNullable(thread).ifPresent(t -> {
+            try {
+                t.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null && thread.isAlive();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    private synchronized LocalKafkaLoadReport generate() {
+        final var histogram = new LocalKafkaLatencyHistogram();
+        final var failures = new AtomicLong();
+        final var bytes = new AtomicLong();
+        final var inFlight = new Semaphore(maxInFlight);
+        final var interval = rate > 0 ? 1_000_000_000L / rate : 0L;
+        logger.info("Generating load on topic(s) {} at {}, for {}.",
+                topics,
+                rate > 0 ? rate + " records/s" : "maximum throughput",
+                Optional.ofNullable(records).map(r -> r + " records")
+                        .or(() -> Optional.ofNullable(duration).map(d -> d.toMillis() + " ms"))
+                        .orElse("as long as the application runs"));
+        final long begin;
+        final long end;
+        try (final var producer = new KafkaProducer<byte[], byte[]>(
+                producerConfigs, new ByteArraySerializer(), new ByteArraySerializer())) {
+            begin = System.nanoTime();
+            final var deadline = Optional.ofNullable(duration).map(d -> begin + d.toNanos()).orElse(Long.MAX_VALUE);
+            var nextReport = begin + reportInterval.toNanos();
+            var reported = 0L;
+            for (var sequence = 0L; !stopRequested && (records == null || sequence < records); sequence++) {
+                if (interval > 0) {
+                    LockSupport.parkNanos(begin + sequence * interval - System.nanoTime());
+                }
+                final var now = System.nanoTime();
+                if (now - deadline >= 0) {
+                    break;
+                }
+                if (now - nextReport >= 0) {
+                    final var acknowledged = histogram.getCount();
+                    logger.info("Sent {} record(s), {} records/s over the last {} ms, send latency p99 {} ms.",
+                            acknowledged,
+                            (acknowledged - reported) * 1_000 / Math.max(1, reportInterval.toMillis()),
+                            reportInterval.toMillis(),
+                            histogram.getPercentile(0.99).toMillis());
+                    reported = acknowledged;
+                    nextReport += reportInterval.toNanos();
+                }
+                final var topic = topics.get((int) (sequence % topics.size()));
+                final var value = payloadSupplier.get(topic, sequence);
+                try {
+                    inFlight.acquire();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                // taken once a slot is free, so that time spent waiting on the
+                // in-flight limit is not counted as latency of the broker
+                final var sent = System.nanoTime();
+                try {
+                    producer.send(new ProducerRecord<>(topic, value), (metadata, exception) -> {
+                        inFlight.release();
+                        if (exception != null) {
+                            failures.incrementAndGet();
+                        } else {
+                            histogram.record(System.nanoTime() - sent);
+                            bytes.addAndGet(value.length);
+                        }
+                    });
+                } catch (final KafkaException e) {
+                    inFlight.release();
+                    failures.incrementAndGet();
+                }
+            }
+            producer.flush();
+            end = System.nanoTime();
+        }
+        final var report = new LocalKafkaLoadReport(
+                histogram.getCount(),
+                failures.get(),
+                bytes.get(),
+                Duration.ofNanos(end - begin),
+                histogram.getPercentile(0.50),
+                histogram.getPercentile(0.90),
+                histogram.getPercentile(0.99),
+                histogram.getPercentile(0.999),
+                histogram.getMax(),
+                histogram.getBuckets());
+        logger.info("Generated load on topic(s) {}: {}.", topics, report);
+        lastReport = report;
+        return report;
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.quinnandrews.spring.local.kafka.loadgen;
+
+import java.time.Duration;
+import java.util.SortedMap;
+
+/**
+ * <p> What a run of the {@link LocalKafkaLoadGenerator} achieved: how many
+ * records and bytes were acknowledged, how many sends failed, how long the
+ * run took, and the distribution of the time from each send until it was
+ * acknowledged.
+ *
+ * @param records   The number of records acknowledged by the broker.
+ * @param failures  The number of records that failed to send.
+ * @param bytes     The number of value bytes acknowledged by the broker.
+ * @param elapsed   The time from the first send until the last acknowledgement.
+ * @param p50       The median send latency.
+ * @param p90       The 90th percentile send latency.
+ * @param p99       The 99th percentile send latency.
+ * @param p999      The 99.9th percentile send latency.
+ * @param max       The maximum send latency.
+ * @param histogram The number of sends by latency, keyed by the upper bound of each non-empty bucket.
+ *
+ * @author Quinn Andrews
+ */
+public record LocalKafkaLoadReport(long records,
+                                   long failures,
+                                   long bytes,
+                                   Duration elapsed,
+                                   Duration p50,
+                                   Duration p90,
+                                   Duration p99,
+                                   Duration p999,
+                                   Duration max,
+                                   SortedMap<Duration, Long> histogram) {
+
+    /**
+     * Returns the number of records acknowledged per second.
+     *
+     * @return double
+     */
+    public double recordsPerSecond() {
+        return elapsed.isZero() ? 0 : records / (elapsed.toNanos() / 1_000_000_000.0);
+    }
+
+    /**
+     * Returns the number of value megabytes acknowledged per second.
+     *
+     * @return double
+     */
+    public double megabytesPerSecond() {
+        return elapsed.isZero() ? 0 : bytes / (1024.0 * 1024.0) / (elapsed.toNanos() / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d records (%d failed) in %d ms, %.0f records/s, %.2f MB/s, "
+                        + "send latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                records, failures, elapsed.toMillis(), recordsPerSecond(), megabytesPerSecond(),
+                millis(p50), millis(p90), millis(p99), millis(p999), millis(max));
+    }
+
+    private static double millis(final Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.quinnandrews.spring.local.kafka.loadgen;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p> Supplies the value of each record sent by the {@link LocalKafkaLoadGenerator}.
+ * Declare a Bean of this type to replace the default random payload, for
+ * example with realistic, serialized domain objects.
+ *
+ * @author Quinn Andrews
+ */
+@FunctionalInterface
+public interface LocalKafkaPayloadSupplier {
+
+    /**
+     * Returns the value of the next record. Called on a single thread,
+     * and the returned array is not modified afterwards, so it may be
+     * shared between records.
+     *
+     * @param topic    The Topic the record is sent to.
+     * @param sequence The number of records sent before this one.
+     * @return byte[]
+     */
+    byte[] get(String topic, long sequence);
+
+    /**
+     * Returns a supplier of the same random, incompressible value of the
+     * given size for every record, which costs nothing to produce.
+     *
+     * @param recordSize The size of each value in bytes.
+     * @return LocalKafkaPayloadSupplier
+     */
+    static LocalKafkaPayloadSupplier random(final int recordSize) {
+        final var value = new byte[recordSize];
+        ThreadLocalRandom.current().nextBytes(value);
+        return (topic, sequence) -> value;
+    }
+}
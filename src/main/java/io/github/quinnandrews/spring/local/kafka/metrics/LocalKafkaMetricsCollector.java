@@ -0,0 +1,294 @@
+package io.github.quinnandrews.spring.local.kafka.metrics;
+
+import io.github.quinnandrews.spring.local.kafka.metrics.LocalKafkaMetricsSnapshot.RequestLatency;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * <p> Polls the local broker through its Admin API, and through JMX when
+ * a JMX URL is known, for the lag of every Consumer Group, the size of
+ * every Topic, the bytes written to and read from the broker, and the
+ * time it takes to handle requests. The latest results are kept as a
+ * {@link LocalKafkaMetricsSnapshot} and passed to any listeners.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaMetricsCollector implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaMetricsCollector.class);
+
+    private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final List<String> JMX_REQUESTS = List.of("Produce", "FetchConsumer", "Metadata");
+
+    private final Map<String, Object> adminConfigs;
+    private final Duration interval;
+    private final Supplier<String> jmxServiceUrl;
+    private final List<Consumer<LocalKafkaMetricsSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private volatile LocalKafkaMetricsSnapshot snapshot = LocalKafkaMetricsSnapshot.empty();
+    private ScheduledExecutorService executor;
+    private Admin admin;
+    private JMXConnector jmxConnector;
+    private boolean failing;
+
+    /**
+     * Constructs an instance that polls with an Admin client created from
+     * the given configuration, and through JMX when the given supplier
+     * returns a JMX service URL.
+     *
+     * @param adminConfigs  The configuration of the Admin client, including the bootstrap servers.
+     * @param interval      The time between polls.
+     * @param jmxServiceUrl Supplies the JMX service URL of the broker, or null if JMX is not available.
+     */
+    public LocalKafkaMetricsCollector(final Map<String, Object> adminConfigs,
+                                      final Duration interval,
+                                      final Supplier<String> jmxServiceUrl) {
+        this.adminConfigs = Map.copyOf(adminConfigs);
+        this.interval = interval;
+        this.jmxServiceUrl = jmxServiceUrl;
+    }
+
+    /**
+     * Returns the metrics collected by the latest poll.
+     *
+     * @return LocalKafkaMetricsSnapshot
+     */
+    public LocalKafkaMetricsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Adds a listener that is passed the metrics collected by each poll.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(final Consumer<LocalKafkaMetricsSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Polls the broker on the calling thread, rather than waiting for the
+     * next scheduled poll, and returns the metrics collected.
+     *
+     * @return LocalKafkaMetricsSnapshot
+     */
+    public synchronized LocalKafkaMetricsSnapshot poll() {
+        try {
+            final var previous = snapshot;
+            snapshot = collect(previous);
+            listeners.forEach(listener -> listener.accept(snapshot));
+            if (failing) {
+                logger.info("Collecting Kafka metrics again.");
+                failing = false;
+            }
+        } catch (final ExecutionException | TimeoutException | IOException | RuntimeException e) {
+            if (!failing) {
+                logger.warn("Could not collect Kafka metrics, retrying every {} ms.", interval.toMillis(), e);
+                failing = true;
+            }
+            closeJmx();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "local-kafka-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        final ScheduledExecutorService stopping;
+        synchronized (this) {
+            stopping = executor;
+            executor = null;
+        }
+        if (stopping == null) {
+            return;
+        }
+        stopping.shutdownNow();
+        synchronized (this) {
+            Optional.ofNullable(admin).ifPresent(a -> a.close(Duration.ZERO));
+            admin = null;
+            closeJmx();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    private LocalKafkaMetricsSnapshot collect(final LocalKafkaMetricsSnapshot previous)
+            throws ExecutionException, InterruptedException, TimeoutException, IOException {
+        if (admin == null) {
+            admin = Admin.create(adminConfigs);
+        }
+        final var begin = System.nanoTime();
+        final var nodes = admin.describeCluster().nodes().get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        final var adminLatencyMillis = (System.nanoTime() - begin) / 1_000_000.0;
+        final var timestamp = Instant.now();
+        final var consumerLag = collectConsumerLag();
+        final var topicSizes = collectTopicSizes(nodes.stream().map(Node::id).toList());
+        final var jmx = jmxConnection();
+        final Double bytesInPerSecond;
+        final Double bytesOutPerSecond;
+        final Map<String, RequestLatency> requestLatency;
+        if (jmx != null) {
+            bytesInPerSecond = jmxRate(jmx, "BytesInPerSec");
+            bytesOutPerSecond = jmxRate(jmx, "BytesOutPerSec");
+            requestLatency = jmxRequestLatency(jmx);
+        } else {
+            // without JMX, bytes in can be estimated from how fast Topics grow
+            bytesInPerSecond = previous.timestamp() == null ? null : Math.max(0.0,
+                    (sum(topicSizes) - sum(previous.topicSizes()))
+                            / (Duration.between(previous.timestamp(), timestamp).toNanos() / 1_000_000_000.0));
+            bytesOutPerSecond = null;
+            requestLatency = Map.of();
+        }
+        return new LocalKafkaMetricsSnapshot(timestamp, adminLatencyMillis, consumerLag, topicSizes,
+                bytesInPerSecond, bytesOutPerSecond, requestLatency);
+    }
+
+    private Map<String, Map<String, Long>> collectConsumerLag()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        final var groups = admin.listConsumerGroups().all()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).stream()
+                .map(ConsumerGroupListing::groupId)
+                .toList();
+        if (groups.isEmpty()) {
+            return Map.of();
+        }
+        final Map<String, Map<TopicPartition, OffsetAndMetadata>> committed = admin.listConsumerGroupOffsets(groups.stream()
+                        .collect(Collectors.toMap(Function.identity(), group -> new ListConsumerGroupOffsetsSpec())))
+                .all().get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        final var partitions = committed.values().stream()
+                .flatMap(offsets -> offsets.keySet().stream())
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest()));
+        final var endOffsets = admin.listOffsets(partitions).all()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        final var lag = new TreeMap<String, Map<String, Long>>();
+        committed.forEach((group, offsets) -> {
+            final var byTopic = new TreeMap<String, Long>();
+            offsets.forEach((partition, offset) -> {
+                if (offset != null) {
+                    final var end = Optional.ofNullable(endOffsets.get(partition))
+                            .map(ListOffsetsResultInfo::offset)
+                            .orElse(offset.offset());
+                    byTopic.merge(partition.topic(), Math.max(0, end - offset.offset()), Long::sum);
+                }
+            });
+            lag.put(group, byTopic);
+        });
+        return lag;
+    }
+
+    private Map<String, Long> collectTopicSizes(final List<Integer> brokerIds)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        final var sizes = new TreeMap<String, Long>();
+        admin.describeLogDirs(brokerIds).allDescriptions()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .values().stream()
+                .flatMap(logDirs -> logDirs.values().stream())
+                .flatMap(logDir -> logDir.replicaInfos().entrySet().stream())
+                .forEach(replica -> sizes.merge(replica.getKey().topic(), replica.getValue().size(), Long::sum));
+        return sizes;
+    }
+
+    private MBeanServerConnection jmxConnection() throws IOException {
+        final var url = jmxServiceUrl.get();
+        if (url == null) {
+            return null;
+        }
+        if (jmxConnector == null) {
+            jmxConnector = JMXConnectorFactory.connect(new JMXServiceURL(url));
+        }
+        return jmxConnector.getMBeanServerConnection();
+    }
+
+    private static Double jmxRate(final MBeanServerConnection jmx, final String name) throws IOException {
+        return ((Number) jmxAttribute(jmx, "kafka.server:type=BrokerTopicMetrics,name=" + name, "OneMinuteRate"))
+                .doubleValue();
+    }
+
+    private static Map<String, RequestLatency> jmxRequestLatency(final MBeanServerConnection jmx) throws IOException {
+        final var latency = new TreeMap<String, RequestLatency>();
+        for (final var request : JMX_REQUESTS) {
+            final var name = "kafka.network:type=RequestMetrics,name=TotalTimeMs,request=" + request;
+            latency.put(request, new RequestLatency(
+                    ((Number) jmxAttribute(jmx, name, "Mean")).doubleValue(),
+                    ((Number) jmxAttribute(jmx, name, "99thPercentile")).doubleValue()));
+        }
+        return latency;
+    }
+
+    private static Object jmxAttribute(final MBeanServerConnection jmx,
+                                       final String objectName,
+                                       final String attribute) throws IOException {
+        try {
+            return jmx.getAttribute(new ObjectName(objectName), attribute);
+        } catch (final IOException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new IllegalStateException("Could not read " + attribute + " of " + objectName + ".", e);
+        }
+    }
+
+    private void closeJmx() {
+        if (jmxConnector != null) {
+            try {
+                jmxConnector.close();
+            } catch (final IOException e) {
+                logger.debug("Could not close JMX connection.", e);
+            }
+            jmxConnector = null;
+        }
+    }
+
+    private static long sum(final Map<String, Long> sizes) {
+        return sizes.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.quinnandrews.spring.local.kafka.metrics;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * <p> The metrics of the local broker and its consumers at one point in time,
+ * as collected by the {@link LocalKafkaMetricsCollector}. Metrics that could
+ * not be collected, such as those only available through JMX, are null.
+ *
+ * @param timestamp          When the metrics were collected.
+ * @param adminLatencyMillis The round trip of a metadata request from the collector to the broker.
+ * @param consumerLag        The number of records not yet consumed, by Consumer Group, then by Topic.
+ * @param topicSizes         The bytes on disk of each Topic, across all of its replicas.
+ * @param bytesInPerSecond   The bytes written to the broker per second.
+ * @param bytesOutPerSecond  The bytes read from the broker per second (JMX only).
+ * @param requestLatency     The time taken by the broker to handle requests, by request type (JMX only).
+ *
+ * @author Quinn Andrews
+ */
+public record LocalKafkaMetricsSnapshot(Instant timestamp,
+                                        Double adminLatencyMillis,
+                                        Map<String, Map<String, Long>> consumerLag,
+                                        Map<String, Long> topicSizes,
+                                        Double bytesInPerSecond,
+                                        Double bytesOutPerSecond,
+                                        Map<String, RequestLatency> requestLatency) {
+
+    /**
+     * The time taken by the broker to handle one type of request.
+     *
+     * @param meanMillis The mean time in milliseconds.
+     * @param p99Millis  The 99th percentile time in milliseconds.
+     */
+    public record RequestLatency(double meanMillis, double p99Millis) {
+    }
+
+    /**
+     * Returns a snapshot with no metrics, for before the first collection.
+     *
+     * @return LocalKafkaMetricsSnapshot
+     */
+    public static LocalKafkaMetricsSnapshot empty() {
+        return new LocalKafkaMetricsSnapshot(null, null, Map.of(), Map.of(), null, null, Map.of());
+    }
+
+    /**
+     * Returns the total lag of the given Consumer Group across all Topics.
+     *
+     * @param group The id of the Consumer Group.
+     * @return long
+     */
+    public long getLag(final String group) {
+        return consumerLag.getOrDefault(group, Map.of()).values().stream().mapToLong(Long::longValue).sum();
+    }
+}
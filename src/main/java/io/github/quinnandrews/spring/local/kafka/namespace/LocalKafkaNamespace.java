@@ -0,0 +1,215 @@
+package io.github.quinnandrews.spring.local.kafka.namespace;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * <p> A prefix given to the names of the Topics and Consumer Groups used by
+ * one Application Context, so that many Application Contexts, such as test
+ * classes running in parallel, can share one broker without seeing each
+ * other's records. Names that already carry the prefix are left as they are,
+ * so that names read back from the broker, such as the Topics of consumed
+ * records, can be passed in again.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaNamespace {
+
+    private static final Pattern LEGAL_PREFIX = Pattern.compile("[a-zA-Z0-9._-]+");
+
+    private final String prefix;
+
+    private LocalKafkaNamespace(final String prefix) {
+        if (!LEGAL_PREFIX.matcher(prefix).matches()) {
+            throw new IllegalArgumentException("A namespace may only contain letters, digits, '.', '_' and '-': " + prefix);
+        }
+        this.prefix = prefix;
+    }
+
+    /**
+     * Returns the namespace with the given prefix.
+     *
+     * @param prefix The prefix (example: {@code pedals-test-}).
+     * @return LocalKafkaNamespace
+     */
+    public static LocalKafkaNamespace of(final String prefix) {
+        return new LocalKafkaNamespace(prefix);
+    }
+
+    /**
+     * Returns a namespace with a random prefix (example: {@code lk-3fa9b2c4-}).
+     *
+     * @return LocalKafkaNamespace
+     */
+    public static LocalKafkaNamespace random() {
+        return new LocalKafkaNamespace("lk-" + UUID.randomUUID().toString().substring(0, 8) + "-");
+    }
+
+    /**
+     * Returns the prefix of this namespace.
+     *
+     * @return String
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Returns the given Topic or Consumer Group name inside this namespace.
+     *
+     * @param name The name, with or without the prefix.
+     * @return String
+     */
+    public String apply(final String name) {
+        return name == null || name.isEmpty() || name.startsWith(prefix) ? name : prefix + name;
+    }
+
+    /**
+     * Returns the names of the given Topics inside this namespace.
+     *
+     * @param names The names, with or without the prefix.
+     * @return List
+     */
+    public List<String> apply(final List<String> names) {
+        return names.stream().map(this::apply).toList();
+    }
+
+    /**
+     * Returns the given partition of a Topic inside this namespace.
+     *
+     * @param topicPartition The partition, with or without the prefix.
+     * @return TopicPartition
+     */
+    public TopicPartition apply(final TopicPartition topicPartition) {
+        return topicPartition.topic().startsWith(prefix)
+                ? topicPartition
+                : new TopicPartition(apply(topicPartition.topic()), topicPartition.partition());
+    }
+
+    /**
+     * Returns a pattern that matches the Topics inside this namespace whose
+     * names, without the prefix, match the given pattern.
+     *
+     * @param pattern The pattern of Topic names without the prefix.
+     * @return Pattern
+     */
+    public Pattern apply(final Pattern pattern) {
+        return Pattern.compile(Pattern.quote(prefix) + "(?:" + pattern.pattern() + ")", pattern.flags());
+    }
+
+    /**
+     * Returns whether the given Topic or Consumer Group name is inside this namespace.
+     *
+     * @param name The name.
+     * @return boolean
+     */
+    public boolean contains(final String name) {
+        return name.startsWith(prefix);
+    }
+
+    /**
+     * Returns a Producer that sends records to the Topics of this namespace.
+     *
+     * @param producer The Producer to delegate to.
+     * @param <K>      The type of keys.
+     * @param <V>      The type of values.
+     * @return Producer
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Producer<K, V> wrap(final Producer<K, V> producer) {
+        return (Producer<K, V>) Proxy.newProxyInstance(Producer.class.getClassLoader(),
+                new Class<?>[] {Producer.class},
+                handler(producer, (name, args) -> {
+                    if (name.equals("send") && args[0] instanceof ProducerRecord<?, ?> record) {
+                        args[0] = new ProducerRecord<>(apply(record.topic()), record.partition(), record.timestamp(),
+                                record.key(), record.value(), record.headers());
+                    } else if (name.equals("partitionsFor")) {
+                        args[0] = apply((String) args[0]);
+                    } else {
+                        applyToPartitions(args);
+                    }
+                }));
+    }
+
+    /**
+     * Returns a Consumer that subscribes to, and is assigned, the Topics of
+     * this namespace. Records are returned with the names of the Topics they
+     * were read from, which carry the prefix.
+     *
+     * @param consumer The Consumer to delegate to.
+     * @param <K>      The type of keys.
+     * @param <V>      The type of values.
+     * @return Consumer
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Consumer<K, V> wrap(final Consumer<K, V> consumer) {
+        return (Consumer<K, V>) Proxy.newProxyInstance(Consumer.class.getClassLoader(),
+                new Class<?>[] {Consumer.class},
+                handler(consumer, (name, args) -> {
+                    if (name.equals("subscribe") && args[0] instanceof Collection<?> topics) {
+                        args[0] = topics.stream().map(topic -> apply((String) topic)).toList();
+                    } else if (name.equals("subscribe") && args[0] instanceof Pattern pattern) {
+                        args[0] = apply(pattern);
+                    } else if (name.equals("partitionsFor")) {
+                        args[0] = apply((String) args[0]);
+                    } else {
+                        applyToPartitions(args);
+                    }
+                }));
+    }
+
+    private interface ArgumentRewriter {
+        void rewrite(String method, Object[] args);
+    }
+
+    private static InvocationHandler handler(final Object delegate, final ArgumentRewriter rewriter) {
+        return (proxy, method, args) -> {
+            if (args != null && args.length > 0) {
+                rewriter.rewrite(method.getName(), args);
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void applyToPartitions(final Object[] args) {
+        for (var i = 0; i < args.length; i++) {
+            if (args[i] instanceof TopicPartition topicPartition) {
+                args[i] = apply(topicPartition);
+            } else if (args[i] instanceof Collection<?> collection
+                    && !collection.isEmpty()
+                    && collection.iterator().next() instanceof TopicPartition) {
+                final var partitions = collection.stream().map(p -> apply((TopicPartition) p));
+                args[i] = args[i] instanceof Set<?> ? partitions.collect(Collectors.toSet()) : partitions.toList();
+            } else if (args[i] instanceof Map<?, ?> map
+                    && !map.isEmpty()
+                    && map.keySet().iterator().next() instanceof TopicPartition) {
+                final var partitions = new LinkedHashMap<TopicPartition, Object>();
+                map.forEach((key, value) -> partitions.put(apply((TopicPartition) key), value));
+                args[i] = partitions;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return prefix;
+    }
+}
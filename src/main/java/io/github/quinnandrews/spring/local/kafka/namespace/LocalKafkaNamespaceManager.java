@@ -0,0 +1,190 @@
+package io.github.quinnandrews.spring.local.kafka.namespace;
+
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaTopic;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p> Creates the configured Topics inside a {@link LocalKafkaNamespace} when
+ * the Application Context starts, and deletes every Topic and Consumer Group
+ * of the namespace when it stops. Deletion runs on a background thread, so
+ * that closing the Application Context, and starting the next one, does not
+ * wait for the broker to delete Topics.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaNamespaceManager implements InitializingBean, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaNamespaceManager.class);
+
+    private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LocalKafkaNamespace namespace;
+    private final Map<String, Object> adminConfigs;
+    private final List<LocalKafkaTopic> topics;
+    private final boolean cleanup;
+    private volatile boolean running;
+    private volatile CompletableFuture<Void> cleanupResult = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructs an instance that manages the given namespace.
+     *
+     * @param namespace    The namespace.
+     * @param adminConfigs The configuration of the Admin Client, including the bootstrap servers.
+     * @param topics       The Topics to create inside the namespace, named without the prefix.
+     * @param cleanup      Whether to delete the Topics and Consumer Groups of the namespace when stopped.
+     */
+    public LocalKafkaNamespaceManager(final LocalKafkaNamespace namespace,
+                                      final Map<String, Object> adminConfigs,
+                                      final List<LocalKafkaTopic> topics,
+                                      final boolean cleanup) {
+        this.namespace = namespace;
+        this.adminConfigs = Map.copyOf(adminConfigs);
+        this.topics = List.copyOf(topics);
+        this.cleanup = cleanup;
+    }
+
+    /**
+     * Creates the Topics inside the namespace, before Kafka Listeners start
+     * and before any seed files are loaded.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        logger.info("Using Kafka namespace {}.", namespace.getPrefix());
+        if (topics.isEmpty()) {
+            return;
+        }
+        try (final var admin = Admin.create(adminConfigs)) {
+            final var newTopics = topics.stream()
+                    .map(topic -> new LocalKafkaTopic(namespace.apply(topic.name()),
+                            topic.partitions(), topic.replicationFactor(), topic.configs()))
+                    .map(LocalKafkaTopic::toNewTopic)
+                    .toList();
+            for (final var result : admin.createTopics(newTopics).values().values()) {
+                try {
+                    result.get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (final ExecutionException e) {
+                    if (!(e.getCause() instanceof TopicExistsException)) {
+                        throw e;
+                    }
+                }
+            }
+            logger.info("Created {} topic(s) in Kafka namespace {}: {}.", newTopics.size(), namespace.getPrefix(),
+                    newTopics.stream().map(NewTopic::name).toList());
+        } catch (final ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not create topics in Kafka namespace " + namespace.getPrefix() + ".", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating topics in Kafka namespace " + namespace.getPrefix() + ".", e);
+        }
+    }
+
+    /**
+     * Returns the namespace managed by this instance.
+     *
+     * @return LocalKafkaNamespace
+     */
+    public LocalKafkaNamespace getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Deletes every Topic and Consumer Group of the namespace on a background
+     * thread. Consumer Groups that still have members are left as they are.
+     *
+     * @return A future that completes once the broker has deleted them.
+     */
+    public CompletableFuture<Void> cleanup() {
+        final var future = new CompletableFuture<Void>();
+        final var thread = new Thread(() -> {
+            try (final var admin = Admin.create(adminConfigs)) {
+                final var groups = admin.listConsumerGroups().all()
+                        .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).stream()
+                        .map(ConsumerGroupListing::groupId)
+                        .filter(namespace::contains)
+                        .toList();
+                for (final var result : admin.deleteConsumerGroups(groups).deletedGroups().values()) {
+                    try {
+                        result.get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                    } catch (final ExecutionException e) {
+                        logger.debug("Could not delete consumer group in Kafka namespace {}.", namespace.getPrefix(), e);
+                    }
+                }
+                final var topicNames = admin.listTopics().names()
+                        .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).stream()
+                        .filter(namespace::contains)
+                        .toList();
+                admin.deleteTopics(topicNames).all()
+                        .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                logger.info("Deleted {} topic(s) and {} consumer group(s) of Kafka namespace {}.",
+                        topicNames.size(), groups.size(), namespace.getPrefix());
+                future.complete(null);
+            } catch (final ExecutionException | TimeoutException | RuntimeException e) {
+                logger.warn("Could not clean up Kafka namespace {}.", namespace.getPrefix(), e);
+                future.completeExceptionally(e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            }
+        }, "local-kafka-namespace-cleanup");
+        thread.setDaemon(true);
+        thread.start();
+        cleanupResult = future;
+        return future;
+    }
+
+    /**
+     * Returns the result of the last cleanup, which tests can wait for.
+     *
+     * @return CompletableFuture
+     */
+    public CompletableFuture<Void> getCleanup() {
+        return cleanupResult;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (cleanup) {
+            cleanup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before, and stops after, Kafka Listener Containers, so that
+     * Consumer Groups have no members left when they are deleted.
+     *
+     * @return int
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 200;
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.quinnandrews.spring.local.kafka.namespace;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.annotation.KafkaListenerAnnotationBeanPostProcessor.AnnotationEnhancer;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * <p> Moves the Topics and Consumer Groups of an Application Context into a
+ * {@link LocalKafkaNamespace}, by rewriting the names it resolves rather than
+ * the code that uses them:
+ * <ul>
+ *   <li>the {@code topics}, {@code topicPattern} and {@code groupId} of
+ *   {@code @KafkaListener} annotations, and the {@code id} when it is used as
+ *   the group,</li>
+ *   <li>the {@code group.id} of Consumer Factories,</li>
+ *   <li>the Topics that Producers and Consumers created by the default
+ *   Producer and Consumer Factories send to, subscribe to and are assigned,</li>
+ *   <li>and the names of {@link NewTopic} Beans.</li>
+ * </ul>
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaNamespacePostProcessor implements BeanPostProcessor, AnnotationEnhancer {
+
+    private final LocalKafkaNamespace namespace;
+
+    /**
+     * Constructs an instance that moves names into the given namespace.
+     *
+     * @param namespace The namespace.
+     */
+    public LocalKafkaNamespacePostProcessor(final LocalKafkaNamespace namespace) {
+        this.namespace = namespace;
+    }
+
+    @Override
+    public Map<String, Object> apply(final Map<String, Object> attributes,
+                                     final AnnotatedElement element) {
+        // Spring Kafka 3.1.0 discards the map returned by an enhancer, so the
+        // attributes, which are a mutable copy, are rewritten in place as well
+        final var enhanced = attributes;
+        Optional.ofNullable((String[]) attributes.get("topics"))
+                .ifPresent(topics -> enhanced.put("topics", Arrays.stream(topics)
+                        .map(this::applyUnlessExpression)
+                        .toArray(String[]::new)));
+        Optional.ofNullable((String) attributes.get("topicPattern"))
+                .filter(pattern -> !pattern.isEmpty())
+                .ifPresent(pattern -> enhanced.put("topicPattern", namespace.apply(Pattern.compile(pattern)).pattern()));
+        final var groupId = (String) attributes.get("groupId");
+        final var id = (String) attributes.get("id");
+        if (groupId != null && !groupId.isEmpty()) {
+            enhanced.put("groupId", applyUnlessExpression(groupId));
+        } else if (id != null && !id.isEmpty() && !Boolean.FALSE.equals(attributes.get("idIsGroup"))) {
+            enhanced.put("groupId", applyUnlessExpression(id));
+        }
+        return enhanced;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof NewTopic newTopic && !namespace.contains(newTopic.name())) {
+            final var renamed = newTopic.replicasAssignments() != null
+                    ? new NewTopic(namespace.apply(newTopic.name()), newTopic.replicasAssignments())
+                    : new NewTopic(namespace.apply(newTopic.name()),
+                            newTopic.numPartitions() < 0 ? Optional.empty() : Optional.of(newTopic.numPartitions()),
+                            newTopic.replicationFactor() < 0 ? Optional.empty() : Optional.of(newTopic.replicationFactor()));
+            return renamed.configs(newTopic.configs());
+        }
+        if (bean instanceof DefaultKafkaProducerFactory<?, ?> producerFactory) {
+            producerFactory.addPostProcessor(namespace::wrap);
+        }
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory) {
+            Optional.ofNullable(consumerFactory.getConfigurationProperties().get(ConsumerConfig.GROUP_ID_CONFIG))
+                    .map(String::valueOf)
+                    .filter(groupId -> !namespace.contains(groupId))
+                    .ifPresent(groupId -> consumerFactory.updateConfigs(Map.of(
+                            ConsumerConfig.GROUP_ID_CONFIG, namespace.apply(groupId))));
+            consumerFactory.addPostProcessor(namespace::wrap);
+        }
+        return bean;
+    }
+
+    private String applyUnlessExpression(final String name) {
+        // a SpEL expression may resolve to several names, so it is left as it is
+        return name.startsWith("#{") ? name : namespace.apply(name);
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.quinnandrews.spring.local.kafka.publish;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> Publishes records through a {@link KafkaOperations}, such as a
+ * {@code KafkaTemplate}, without waiting for each one to be acknowledged
+ * before sending the next, as {@code kafkaTemplate.send(record).get()} does.
+ * Sends are pipelined, so that the producer batches them and keeps several
+ * requests in flight, and only the number of records in flight is bounded:
+ * when it is reached, publishing blocks until the broker catches up, or
+ * fails once the backpressure timeout expires.
+ *
+ * <p> A batch of records is published with {@link #publishAll(Collection)},
+ * which flushes the producer once every record is sent, rather than waiting
+ * for {@code linger.ms}, and returns a single {@link CompletableFuture} that
+ * completes when every record of the batch is acknowledged, or fails if any
+ * of them could not be published.
+ *
+ * @param <K> The type of the keys of the records.
+ * @param <V> The type of the values of the records.
+ * @author Quinn Andrews
+ */
+public class LocalKafkaPublisher<K, V> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaPublisher.class);
+
+    private final KafkaOperations<K, V> kafkaOperations;
+    private int maxInFlight = 10_000;
+    private Duration backpressureTimeout = Duration.ofSeconds(10);
+    private Semaphore inFlight = new Semaphore(maxInFlight);
+
+    /**
+     * Constructs an instance that publishes through the given Kafka Operations.
+     *
+     * @param kafkaOperations The Kafka Operations to publish through (example: a {@code KafkaTemplate}).
+     */
+    public LocalKafkaPublisher(final KafkaOperations<K, V> kafkaOperations) {
+        this.kafkaOperations = kafkaOperations;
+    }
+
+    /**
+     * Sets the maximum number of records sent but not yet acknowledged.
+     * Publishing blocks when it is reached, until the broker catches up.
+     * Must be set before the first record is published.
+     *
+     * @param maxInFlight The maximum number of records in flight.
+     * @return this Publisher
+     */
+    public LocalKafkaPublisher<K, V> withMaxInFlight(final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one record must be allowed in flight.");
+        }
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        return this;
+    }
+
+    /**
+     * Sets how long publishing a record may block while the maximum number
+     * of records is in flight, before the record fails.
+     *
+     * @param backpressureTimeout The maximum time to block.
+     * @return this Publisher
+     */
+    public LocalKafkaPublisher<K, V> withBackpressureTimeout(final Duration backpressureTimeout) {
+        this.backpressureTimeout = backpressureTimeout;
+        return this;
+    }
+
+    /**
+     * Returns the number of records sent but not yet acknowledged.
+     *
+     * @return int
+     */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Sends the given record without waiting for it to be acknowledged,
+     * blocking only while the maximum number of records is in flight. A
+     * record that cannot be sent fails the returned Future rather than
+     * throwing.
+     *
+     * @param record The record to publish.
+     * @return CompletableFuture of the result of the send
+     */
+    public CompletableFuture<SendResult<K, V>> publish(final ProducerRecord<K, V> record) {
+        try {
+            if (!inFlight.tryAcquire(backpressureTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new KafkaException(String.format(
+                        "Timed out after %s ms waiting for one of %s record(s) in flight to be acknowledged.",
+                        backpressureTimeout.toMillis(), maxInFlight)));
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return kafkaOperations.send(record)
+                    .whenComplete((result, exception) -> inFlight.release());
+        } catch (final RuntimeException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends the given records as one batch, without waiting for each to be
+     * acknowledged, then flushes the producer so that the last records are
+     * sent right away. The returned Future completes with the results in
+     * the order of the records once all of them are acknowledged, or fails
+     * once all of them are completed if any could not be published, with
+     * the first failure as the cause and the others suppressed.
+     *
+     * @param records The records to publish.
+     * @return CompletableFuture of the results of the batch
+     */
+    public CompletableFuture<List<SendResult<K, V>>> publishAll(final Collection<ProducerRecord<K, V>> records) {
+        final var futures = new ArrayList<CompletableFuture<SendResult<K, V>>>(records.size());
+        for (final var record : records) {
+            futures.add(publish(record));
+        }
+        flush();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .handle((ignored, exception) -> {
+                    if (exception == null) {
+                        return futures.stream().map(CompletableFuture::join).toList();
+                    }
+                    final var failures = futures.stream()
+                            .filter(CompletableFuture::isCompletedExceptionally)
+                            .map(LocalKafkaPublisher::cause)
+                            .toList();
+                    final var failure = new KafkaException(String.format(
+                            "Could not publish %s of %s record(s).", failures.size(), futures.size()),
+                            failures.get(0));
+                    failures.stream().skip(1).forEach(failure::addSuppressed);
+                    throw new CompletionException(failure);
+                });
+    }
+
+    /**
+     * Flushes the producer, sending the records that wait for
+     * {@code linger.ms} right away.
+     */
+    public void flush() {
+        try {
+            kafkaOperations.flush();
+        } catch (final RuntimeException e) {
+            // the records that could not be sent fail their own Futures
+            logger.warn("Could not flush the producer: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes the producer and waits, up to the backpressure timeout, until
+     * every record in flight is acknowledged. Does not close the Kafka
+     * Operations, which are not owned by this Publisher.
+     */
+    @Override
+    public void close() {
+        flush();
+        try {
+            if (inFlight.tryAcquire(maxInFlight, backpressureTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                inFlight.release(maxInFlight);
+            } else {
+                logger.warn("Closed with {} record(s) still in flight.", getInFlight());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Throwable cause(final CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (final CompletionException e) {
+            return e.getCause();
+        } catch (final RuntimeException e) {
+            return e;
+        }
+    }
+}
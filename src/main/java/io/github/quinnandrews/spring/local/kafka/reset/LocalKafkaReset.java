@@ -0,0 +1,55 @@
+package io.github.quinnandrews.spring.local.kafka.reset;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p> Clears the Topics of the local broker, and the committed offsets of
+ * empty Consumer Groups, before the annotated test class, or before each of
+ * its tests, with the {@link LocalKafkaResetter} of its Application Context.
+ * Use instead of {@code @DirtiesContext} when a test class only needs empty
+ * Topics, so that the Application Context and the broker are reused.
+ *
+ * @author Quinn Andrews
+ */
+@Documented
+@Inherited
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(LocalKafkaResetExtension.class)
+public @interface LocalKafkaReset {
+
+    /**
+     * When to reset the broker.
+     */
+    enum Phase {
+        /**
+         * Once, before the first test of the class.
+         */
+        BEFORE_CLASS,
+        /**
+         * Before each test of the class.
+         */
+        BEFORE_EACH_TEST
+    }
+
+    /**
+     * When to reset the broker. By default, before the first test of the class.
+     *
+     * @return Phase
+     */
+    Phase phase() default Phase.BEFORE_CLASS;
+
+    /**
+     * How to clear Topics. By default, by truncating them.
+     *
+     * @return Strategy
+     */
+    LocalKafkaResetter.Strategy strategy() default LocalKafkaResetter.Strategy.TRUNCATE;
+}
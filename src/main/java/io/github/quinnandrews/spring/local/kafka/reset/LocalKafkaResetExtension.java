@@ -0,0 +1,37 @@
+package io.github.quinnandrews.spring.local.kafka.reset;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * <p> The JUnit Jupiter Extension behind {@link LocalKafkaReset}, which
+ * looks up the {@link LocalKafkaResetter} of the Application Context of the
+ * test class through the {@link SpringExtension}, loading the Application
+ * Context first if it is not cached yet.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaResetExtension implements BeforeAllCallback, BeforeEachCallback {
+
+    @Override
+    public void beforeAll(final ExtensionContext context) {
+        reset(context, LocalKafkaReset.Phase.BEFORE_CLASS);
+    }
+
+    @Override
+    public void beforeEach(final ExtensionContext context) {
+        reset(context, LocalKafkaReset.Phase.BEFORE_EACH_TEST);
+    }
+
+    private static void reset(final ExtensionContext context,
+                              final LocalKafkaReset.Phase phase) {
+        AnnotationSupport.findAnnotation(context.getRequiredTestClass(), LocalKafkaReset.class)
+                .filter(annotation -> annotation.phase() == phase)
+                .ifPresent(annotation -> SpringExtension.getApplicationContext(context)
+                        .getBean(LocalKafkaResetter.class)
+                        .reset(annotation.strategy()));
+    }
+}
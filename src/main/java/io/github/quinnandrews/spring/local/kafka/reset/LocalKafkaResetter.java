@@ -0,0 +1,348 @@
+package io.github.quinnandrews.spring.local.kafka.reset;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.RecordsToDelete;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.ConsumerGroupState;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * <p> Clears the records of Topics, and the committed offsets of Consumer
+ * Groups on them, without restarting the broker, so that test classes can
+ * share one Application Context and one broker instead of restarting them
+ * with {@code @DirtiesContext}. Every step is a single request for all
+ * Topics at once, so a reset takes milliseconds rather than the tens of
+ * seconds of a restart.
+ *
+ * <p> Consumer Groups that still have members, such as the groups of
+ * running Kafka Listeners, keep their committed offsets, since the broker
+ * only lets empty groups be changed.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaResetter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaResetter.class);
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    /**
+     * How Topics are cleared.
+     */
+    public enum Strategy {
+        /**
+         * Deletes every record of each Topic with {@code deleteRecords}, which
+         * keeps the Topic, its partitions and its leaders as they are, and
+         * moves the committed offsets of empty Consumer Groups to the end.
+         * Offsets keep growing from where they were.
+         */
+        TRUNCATE,
+        /**
+         * Deletes each Topic and creates it again, with the same partitions,
+         * replication factor and configs, and deletes the committed offsets of
+         * empty Consumer Groups on it. Offsets start again from zero, at the
+         * cost of waiting for the broker to elect new leaders.
+         */
+        RECREATE
+    }
+
+    private final Map<String, Object> adminConfigs;
+    private Strategy strategy = Strategy.TRUNCATE;
+    private Duration timeout = Duration.ofSeconds(30);
+    private Predicate<String> topicFilter = topic -> !topic.startsWith("_");
+    private Admin admin;
+
+    /**
+     * Constructs an instance that resets the broker with an Admin Client
+     * created from the given configuration.
+     *
+     * @param adminConfigs The configuration of the Admin Client, including the bootstrap servers.
+     */
+    public LocalKafkaResetter(final Map<String, Object> adminConfigs) {
+        this.adminConfigs = Map.copyOf(adminConfigs);
+    }
+
+    /**
+     * Sets how Topics are cleared by {@link #reset()}.
+     *
+     * @param strategy The strategy.
+     * @return this Resetter
+     */
+    public LocalKafkaResetter withStrategy(final Strategy strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+
+    /**
+     * Sets how long a reset may take, including waiting for the metadata of
+     * the broker to converge.
+     *
+     * @param timeout The timeout.
+     * @return this Resetter
+     */
+    public LocalKafkaResetter withTimeout(final Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sets which Topics {@link #reset()} clears. By default, every Topic
+     * whose name does not start with {@code _}, which leaves out internal
+     * Topics such as {@code __consumer_offsets}.
+     *
+     * @param topicFilter Whether to clear the Topic with a given name.
+     * @return this Resetter
+     */
+    public LocalKafkaResetter withTopicFilter(final Predicate<String> topicFilter) {
+        this.topicFilter = topicFilter;
+        return this;
+    }
+
+    /**
+     * Clears every Topic of the broker that matches the filter, with the
+     * configured strategy.
+     *
+     * @return The names of the Topics cleared.
+     */
+    public List<String> reset() {
+        return reset(strategy);
+    }
+
+    /**
+     * Clears every Topic of the broker that matches the filter, with the
+     * given strategy.
+     *
+     * @param strategy The strategy.
+     * @return The names of the Topics cleared.
+     */
+    public List<String> reset(final Strategy strategy) {
+        final var topics = call("list topics", admin().listTopics().names()).stream()
+                .filter(topicFilter)
+                .sorted()
+                .toList();
+        reset(topics, strategy);
+        return topics;
+    }
+
+    /**
+     * Clears the given Topics with the given strategy, and waits until the
+     * broker reports them cleared.
+     *
+     * @param topics   The names of the Topics.
+     * @param strategy The strategy.
+     */
+    public synchronized void reset(final Collection<String> topics,
+                                   final Strategy strategy) {
+        if (topics.isEmpty()) {
+            return;
+        }
+        final var begin = System.nanoTime();
+        final var descriptions = call("describe topics", admin().describeTopics(topics).allTopicNames());
+        final var partitions = descriptions.values().stream()
+                .flatMap(description -> description.partitions().stream()
+                        .map(partition -> new TopicPartition(description.name(), partition.partition())))
+                .collect(Collectors.toSet());
+        final var groups = emptyGroups();
+        final var resetGroups = switch (strategy) {
+            case TRUNCATE -> truncate(partitions, groups);
+            case RECREATE -> recreate(descriptions, partitions, groups);
+        };
+        logger.info("Reset {} topic(s) and {} consumer group(s) with strategy {} in {} ms.",
+                topics.size(), resetGroups, strategy, Duration.ofNanos(System.nanoTime() - begin).toMillis());
+    }
+
+    private int truncate(final Set<TopicPartition> partitions,
+                         final List<String> groups) {
+        final var endOffsets = call("list offsets", admin().listOffsets(partitions.stream()
+                .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest()))).all());
+        call("delete records", admin().deleteRecords(endOffsets.entrySet().stream()
+                .filter(entry -> entry.getValue().offset() > 0)
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        entry -> RecordsToDelete.beforeOffset(entry.getValue().offset())))).all());
+        var resetGroups = 0;
+        for (final var group : groups) {
+            final var committed = committedOffsets(group, partitions);
+            if (!committed.isEmpty()) {
+                resetGroups++;
+                call("reset offsets of consumer group " + group, admin().alterConsumerGroupOffsets(group,
+                        committed.stream().collect(Collectors.toMap(Function.identity(),
+                                partition -> new OffsetAndMetadata(endOffsets.get(partition).offset())))).all());
+            }
+        }
+        return resetGroups;
+    }
+
+    private int recreate(final Map<String, TopicDescription> descriptions,
+                         final Set<TopicPartition> partitions,
+                         final List<String> groups) {
+        final var configs = call("describe topic configs", admin().describeConfigs(descriptions.keySet().stream()
+                .map(topic -> new ConfigResource(ConfigResource.Type.TOPIC, topic))
+                .toList()).all());
+        final var newTopics = descriptions.values().stream()
+                .map(description -> new NewTopic(description.name(), description.partitions().size(),
+                        (short) description.partitions().get(0).replicas().size())
+                        .configs(configs.get(new ConfigResource(ConfigResource.Type.TOPIC, description.name()))
+                                .entries().stream()
+                                .filter(entry -> entry.source() == ConfigEntry.ConfigSource.DYNAMIC_TOPIC_CONFIG)
+                                .collect(Collectors.toMap(ConfigEntry::name, ConfigEntry::value))))
+                .toList();
+        var resetGroups = 0;
+        for (final var group : groups) {
+            final var committed = committedOffsets(group, partitions);
+            if (!committed.isEmpty()) {
+                resetGroups++;
+                call("delete offsets of consumer group " + group,
+                        admin().deleteConsumerGroupOffsets(group, committed).all());
+            }
+        }
+        call("delete topics", admin().deleteTopics(descriptions.keySet()).all());
+        // deletion completes on the controller before every broker has let go
+        // of the Topics, so creation is retried until the names are free
+        final var deadline = System.nanoTime() + timeout.toNanos();
+        var pending = newTopics;
+        while (!pending.isEmpty()) {
+            final var results = admin().createTopics(pending).values();
+            final var retry = new HashMap<String, NewTopic>();
+            pending.forEach(topic -> {
+                try {
+                    results.get(topic.name()).get(remaining(deadline), TimeUnit.MILLISECONDS);
+                } catch (final ExecutionException e) {
+                    if (!(e.getCause() instanceof TopicExistsException)) {
+                        throw new IllegalStateException("Could not recreate topic " + topic.name() + ".", e);
+                    }
+                    retry.put(topic.name(), topic);
+                } catch (final TimeoutException e) {
+                    throw new IllegalStateException("Timed out recreating topic " + topic.name() + ".", e);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while recreating topic " + topic.name() + ".", e);
+                }
+            });
+            pending = List.copyOf(retry.values());
+            if (!pending.isEmpty()) {
+                sleep(deadline);
+            }
+        }
+        awaitLeaders(partitions, deadline);
+        return resetGroups;
+    }
+
+    private void awaitLeaders(final Set<TopicPartition> partitions,
+                              final long deadline) {
+        final var topics = partitions.stream().map(TopicPartition::topic).collect(Collectors.toSet());
+        while (true) {
+            try {
+                final var ready = admin().describeTopics(topics).allTopicNames()
+                        .get(remaining(deadline), TimeUnit.MILLISECONDS).values().stream()
+                        .flatMap(description -> description.partitions().stream())
+                        .allMatch(partition -> partition.leader() != null && !partition.leader().isEmpty());
+                if (ready) {
+                    // the leaders must also answer, not only be known to the controller
+                    admin().listOffsets(partitions.stream()
+                                    .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest())))
+                            .all().get(remaining(deadline), TimeUnit.MILLISECONDS);
+                    return;
+                }
+            } catch (final ExecutionException e) {
+                if (!(e.getCause() instanceof UnknownTopicOrPartitionException)) {
+                    throw new IllegalStateException("Could not describe recreated topics " + topics + ".", e);
+                }
+            } catch (final TimeoutException e) {
+                throw new IllegalStateException("Timed out waiting for leaders of recreated topics " + topics + ".", e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for recreated topics " + topics + ".", e);
+            }
+            sleep(deadline);
+        }
+    }
+
+    private List<String> emptyGroups() {
+        return call("list consumer groups", admin().listConsumerGroups().all()).stream()
+                .filter(group -> group.state().filter(state -> state == ConsumerGroupState.EMPTY).isPresent())
+                .map(ConsumerGroupListing::groupId)
+                .toList();
+    }
+
+    private Set<TopicPartition> committedOffsets(final String group,
+                                                 final Set<TopicPartition> partitions) {
+        return call("list offsets of consumer group " + group,
+                admin().listConsumerGroupOffsets(group).partitionsToOffsetAndMetadata()).keySet().stream()
+                .filter(partitions::contains)
+                .collect(Collectors.toSet());
+    }
+
+    private synchronized Admin admin() {
+        if (admin == null) {
+            admin = Admin.create(adminConfigs);
+        }
+        return admin;
+    }
+
+    private <T> T call(final String action,
+                       final KafkaFuture<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not " + action + ".", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while trying to " + action + ".", e);
+        }
+    }
+
+    private static long remaining(final long deadline) throws TimeoutException {
+        final var remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new TimeoutException();
+        }
+        return remaining;
+    }
+
+    private static void sleep(final long deadline) {
+        if (deadline - System.nanoTime() <= 0) {
+            throw new IllegalStateException("Timed out waiting for the broker to converge after a reset.");
+        }
+        try {
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the broker to converge after a reset.", e);
+        }
+    }
+
+    /**
+     * Closes the Admin Client, if one was created.
+     */
+    @Override
+    public synchronized void close() {
+        if (admin != null) {
+            admin.close(Duration.ofSeconds(5));
+            admin = null;
+        }
+    }
+}
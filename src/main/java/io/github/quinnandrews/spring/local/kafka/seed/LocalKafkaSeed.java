@@ -0,0 +1,50 @@
+package io.github.quinnandrews.spring.local.kafka.seed;
+
+import java.util.Optional;
+
+/**
+ * <p> Files of records to load into a Topic right after the broker starts.
+ *
+ * @param topic     The Topic to load the records into.
+ * @param location  The location of the files, as a Spring resource location or pattern
+ *                  (example: {@code classpath:seed/*.ndjson} or {@code file:/data/pedals.ndjson.gz}).
+ * @param format    The format of the files, or null for {@link Format#NDJSON}.
+ * @param keyField  For NDJSON, the top-level field whose value is used as the key, or null for no key.
+ * @param separator For key/value text, what separates the key from the value, or null for a tab.
+ *
+ * @author Quinn Andrews
+ */
+public record LocalKafkaSeed(String topic,
+                             String location,
+                             Format format,
+                             String keyField,
+                             String separator) {
+
+    public LocalKafkaSeed {
+        format = Optional.ofNullable(format).orElse(Format.NDJSON);
+        separator = Optional.ofNullable(separator).orElse("\t");
+    }
+
+    /**
+     * The format of a seed file. Files whose names end with {@code .gz}
+     * are decompressed first, in any format.
+     */
+    public enum Format {
+        /**
+         * One JSON document per line, sent as the value as it is, without being parsed
+         * unless a key field is set. Blank lines are skipped.
+         */
+        NDJSON,
+        /**
+         * One record per line, with the key and the value separated by the first
+         * occurrence of the separator. Lines without the separator have no key.
+         */
+        KEY_VALUE,
+        /**
+         * Records already serialized in any binary format, such as Avro, each written as
+         * the length of the key as a 4-byte big-endian integer, the key, the length of
+         * the value and the value. A length of -1 stands for a null key or value.
+         */
+        BINARY
+    }
+}
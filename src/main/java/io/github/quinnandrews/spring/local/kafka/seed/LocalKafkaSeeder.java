@@ -0,0 +1,299 @@
+package io.github.quinnandrews.spring.local.kafka.seed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <p> Loads records from files into Topics as fast as the broker accepts
+ * them, through a single producer tuned for bulk loading: large, compressed
+ * batches, and sends that are pipelined rather than waited for one at a
+ * time. Progress and throughput are logged as the files are read.
+ *
+ * @author Quinn Andrews
+ */
+public class LocalKafkaSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKafkaSeeder.class);
+
+    private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The producer properties applied unless overridden.
+     */
+    public static final Map<String, Object> DEFAULT_PRODUCER_PROPERTIES = Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 50,
+            ProducerConfig.BATCH_SIZE_CONFIG, 524288,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4",
+            ProducerConfig.BUFFER_MEMORY_CONFIG, 134217728L);
+
+    private final Map<String, Object> producerConfigs;
+    private final ResourcePatternResolver resourceResolver;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Duration progressInterval = Duration.ofSeconds(5);
+    private boolean skipIfNotEmpty = true;
+
+    /**
+     * Constructs an instance that loads records through a producer created
+     * from the given configuration.
+     *
+     * @param producerConfigs  The configuration of the producer, including the bootstrap servers.
+     * @param resourceResolver Resolves the locations of seed files.
+     */
+    public LocalKafkaSeeder(final Map<String, Object> producerConfigs,
+                            final ResourcePatternResolver resourceResolver) {
+        this.producerConfigs = Map.copyOf(producerConfigs);
+        this.resourceResolver = resourceResolver;
+    }
+
+    /**
+     * Sets how often progress is logged while loading.
+     *
+     * @param progressInterval The interval between progress logs.
+     * @return this Seeder
+     */
+    public LocalKafkaSeeder withProgressInterval(final Duration progressInterval) {
+        this.progressInterval = progressInterval;
+        return this;
+    }
+
+    /**
+     * Sets whether Topics that already hold records are left as they are,
+     * so that a reused or restored broker is not loaded twice.
+     *
+     * @param skipIfNotEmpty Whether to skip Topics that already hold records.
+     * @return this Seeder
+     */
+    public LocalKafkaSeeder withSkipIfNotEmpty(final boolean skipIfNotEmpty) {
+        this.skipIfNotEmpty = skipIfNotEmpty;
+        return this;
+    }
+
+    /**
+     * Loads the records of the given seeds and waits until all of them have
+     * been acknowledged by the broker.
+     *
+     * @param seeds The files to load, and the Topics to load them into.
+     * @return The number of records loaded.
+     */
+    public long seed(final List<LocalKafkaSeed> seeds) {
+        final var pending = skipIfNotEmpty ? seeds.stream().filter(this::isEmpty).toList() : seeds;
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        final var progress = new Progress();
+        final var failures = new AtomicLong();
+        final var failure = new AtomicReference<Exception>();
+        var files = 0;
+        try (final var producer = new KafkaProducer<byte[], byte[]>(
+                producerConfigs, new ByteArraySerializer(), new ByteArraySerializer())) {
+            for (final var seed : pending) {
+                for (final var resource : resolve(seed)) {
+                    files++;
+                    try (final var in = open(resource)) {
+                        read(seed, in, (key, value) -> {
+                            producer.send(new ProducerRecord<>(seed.topic(), key, value), (metadata, exception) -> {
+                                if (exception != null) {
+                                    failures.incrementAndGet();
+                                    failure.compareAndSet(null, exception);
+                                }
+                            });
+                            progress.sent(seed.topic(), (key == null ? 0 : key.length) + (value == null ? 0 : value.length));
+                        });
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException("Could not read seed file " + resource.getDescription() + ".", e);
+                    }
+                }
+            }
+            producer.flush();
+        }
+        if (failures.get() > 0) {
+            throw new IllegalStateException("Could not seed " + failures.get() + " record(s).", failure.get());
+        }
+        final var elapsed = progress.elapsed();
+        logger.info("Seeded {} record(s) from {} file(s) into {} topic(s) in {} ms ({} records/s, {} MB/s).",
+                progress.records, files, pending.stream().map(LocalKafkaSeed::topic).distinct().count(),
+                elapsed.toMillis(),
+                String.format("%.0f", progress.records / Math.max(0.001, elapsed.toNanos() / 1_000_000_000.0)),
+                String.format("%.2f", progress.bytes / (1024.0 * 1024.0) / Math.max(0.001, elapsed.toNanos() / 1_000_000_000.0)));
+        return progress.records;
+    }
+
+    private interface RecordHandler {
+        void accept(byte[] key, byte[] value);
+    }
+
+    private void read(final LocalKafkaSeed seed,
+                      final InputStream in,
+                      final RecordHandler handler) throws IOException {
+        switch (seed.format()) {
+            case NDJSON -> {
+                final var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+                for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (!line.isBlank()) {
+                        handler.accept(seed.keyField() == null ? null : key(line, seed.keyField()),
+                                line.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            case KEY_VALUE -> {
+                final var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+                for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    final var index = line.indexOf(seed.separator());
+                    if (index < 0) {
+                        handler.accept(null, line.getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        handler.accept(line.substring(0, index).getBytes(StandardCharsets.UTF_8),
+                                line.substring(index + seed.separator().length()).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            case BINARY -> {
+                final var data = new DataInputStream(in);
+                while (true) {
+                    final int keyLength;
+                    try {
+                        keyLength = data.readInt();
+                    } catch (final EOFException e) {
+                        break;
+                    }
+                    final var key = readBytes(data, keyLength);
+                    handler.accept(key, readBytes(data, data.readInt()));
+                }
+            }
+        }
+    }
+
+    private byte[] key(final String line, final String keyField) throws IOException {
+        final JsonNode field = objectMapper.readTree(line).get(keyField);
+        if (field == null || field.isNull()) {
+            return null;
+        }
+        return (field.isTextual() ? field.asText() : field.toString()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(final DataInputStream data, final int length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        final var bytes = new byte[length];
+        data.readFully(bytes);
+        return bytes;
+    }
+
+    private List<Resource> resolve(final LocalKafkaSeed seed) {
+        try {
+            final var resources = List.of(resourceResolver.getResources(seed.location())).stream()
+                    .filter(Resource::exists)
+                    .toList();
+            if (resources.isEmpty()) {
+                throw new IllegalArgumentException("No seed files found at " + seed.location() + ".");
+            }
+            return resources;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not resolve seed files at " + seed.location() + ".", e);
+        }
+    }
+
+    private static InputStream open(final Resource resource) throws IOException {
+        final var in = new BufferedInputStream(resource.getInputStream(), BUFFER_SIZE);
+        return Optional.ofNullable(resource.getFilename()).filter(name -> name.endsWith(".gz")).isPresent()
+                ? new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE)
+                : in;
+    }
+
+    private boolean isEmpty(final LocalKafkaSeed seed) {
+        try (final var admin = Admin.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, producerConfigs.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG)))) {
+            final var partitions = admin.describeTopics(List.of(seed.topic())).allTopicNames()
+                    .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                    .get(seed.topic()).partitions().stream()
+                    .map(partition -> new TopicPartition(seed.topic(), partition.partition()))
+                    .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest()));
+            final var records = admin.listOffsets(partitions).all()
+                    .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).values().stream()
+                    .mapToLong(ListOffsetsResultInfo::offset)
+                    .sum();
+            if (records > 0) {
+                logger.info("Skipped seeding topic {}, which already holds {} record(s).", seed.topic(), records);
+                return false;
+            }
+            return true;
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof UnknownTopicOrPartitionException) {
+                return true;
+            }
+            throw new IllegalStateException("Could not check whether topic " + seed.topic() + " is empty.", e);
+        } catch (final TimeoutException e) {
+            throw new IllegalStateException("Could not check whether topic " + seed.topic() + " is empty.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking whether topic " + seed.topic() + " is empty.", e);
+        }
+    }
+
+    private final class Progress {
+
+        private final long begin = System.nanoTime();
+        private long nextReport = begin + progressInterval.toNanos();
+        private long reported;
+        private long records;
+        private long bytes;
+
+        void sent(final String topic, final int size) {
+            records++;
+            bytes += size;
+            final var now = System.nanoTime();
+            if (now - nextReport >= 0) {
+                logger.info("Seeding topic {}: {} record(s) sent, {} records/s over the last {} ms.",
+                        topic, records, (records - reported) * 1_000 / Math.max(1, progressInterval.toMillis()),
+                        progressInterval.toMillis());
+                reported = records;
+                nextReport += progressInterval.toNanos();
+            }
+        }
+
+        Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - begin);
+        }
+    }
+}
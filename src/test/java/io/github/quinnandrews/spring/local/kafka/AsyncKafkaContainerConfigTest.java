@@ -0,0 +1,113 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.repository.GuitarPedalRepository;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalConsumer;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalProducer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+
+import java.time.Duration;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@DirtiesContext
+@ActiveProfiles("async")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class AsyncKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Autowired(required = false)
+    private SmartInitializingSingleton kafkaContainerStartupBarrier;
+
+    @Autowired(required = false)
+    private ProducerFactory<Long, GuitarPedal> guitarPedalProducerFactory;
+
+    @Autowired(required = false)
+    private GuitarPedalProducer guitarPedalProducer;
+
+    @SpyBean
+    private GuitarPedalConsumer guitarPedalConsumer;
+
+    @Autowired(required = false)
+    private GuitarPedalRepository guitarPedalRepository;
+
+    @Test
+    @Order(1)
+    void container_readyBeforeContextRefreshed() {
+        // given the application is initialized
+        // and the 'async' profile is active
+        // then the container is initialized
+        assertNotNull(kafkaContainer);
+        // and the startup barrier is initialized
+        assertNotNull(kafkaContainerStartupBarrier);
+        // and the barrier waited for the background startup to complete before the context was refreshed
+        assertTrue(kafkaContainer.getStartup().isDone());
+        assertFalse(kafkaContainer.getStartup().isCompletedExceptionally());
+        assertTrue(kafkaContainer.isRunning());
+    }
+
+    @Test
+    @Order(2)
+    void bootstrapServers_knownBeforeStartup() {
+        // given the application is initialized
+        // and the 'async' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // then the port chosen up front is the one the broker is bound to
+        final var mappedPort = kafkaContainer.getMappedPort(KafkaContainer.KAFKA_PORT);
+        // and the producerFactory was configured with it while the container was starting
+        assertNotNull(guitarPedalProducerFactory);
+        assertTrue(guitarPedalProducerFactory.getConfigurationProperties()
+                .get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG)
+                .toString()
+                .endsWith(":" + mappedPort));
+    }
+
+    @Test
+    @Order(3)
+    void producesAndConsumes() {
+        // given the application is initialized
+        // and the 'async' profile is active
+        // and the producer is initialized
+        assertNotNull(guitarPedalProducer);
+        // and the consumer is initialized
+        assertNotNull(guitarPedalConsumer);
+        // and there are 3 pedals in the database
+        assertEquals(3L, guitarPedalRepository.count());
+        // when a new pedal is purchased
+        final var pedal = new GuitarPedal()
+                .withId(7L)
+                .withName("JHS Colour Box V2");
+        // and a pedal purchased event is produced
+        guitarPedalProducer.guitarPedalPurchased(pedal);
+        await().pollInterval(Duration.ofSeconds(3))
+                .atMost(10L, SECONDS)
+                .untilAsserted(() -> {
+                    // then the consumer receives the event
+                    verify(guitarPedalConsumer, times(1)).guitarPedalPurchased(pedal);
+                    // and the new pedal is added to the database
+                    assertEquals(4L, guitarPedalRepository.count());
+                });
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.NestedExceptionUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncSchemaRegistryKafkaContainerConfigTest {
+
+    @Test
+    void schemaRegistry_rejectedWithAsyncStartup() {
+        // given the 'schema-registry' profile is active
+        // when an application context is started with asynchronous startup
+        final var exception = assertThrows(Exception.class, () -> new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .profiles("schema-registry")
+                .properties("spring.local.kafka.container.startup.async=true")
+                .run()
+                .close());
+        // then it fails before any Container is created, since the URL of the
+        // Schema Registry could be read before the Schema Registry has started
+        final var cause = NestedExceptionUtils.getMostSpecificCause(exception);
+        assertInstanceOf(IllegalStateException.class, cause);
+        assertEquals("A Schema Registry cannot run next to a reusable or asynchronously started Container.",
+                cause.getMessage());
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.config.ConfigResource;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("fast")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class BrokerProfileKafkaConfigTest {
+
+    @Autowired(required = false)
+    private EmbeddedKafkaKraftBroker embeddedKafkaBroker;
+
+    @Test
+    @Order(1)
+    void profileProperties_reachBroker() {
+        // given the application is initialized
+        // and the 'fast' profile is active
+        // and the embedded broker is initialized
+        assertNotNull(embeddedKafkaBroker);
+        // when the configuration of the broker is described
+        final var config = brokerConfig();
+        // then the properties of the 'fast' broker profile are applied
+        assertEquals("0", config.get("group.initial.rebalance.delay.ms").value());
+        assertEquals("250", config.get("group.min.session.timeout.ms").value());
+        assertEquals("1048576", config.get("log.index.size.max.bytes").value());
+        assertEquals("false", config.get("controlled.shutdown.enable").value());
+    }
+
+    @Test
+    @Order(2)
+    void explicitProperties_takePrecedenceOverProfile() {
+        // given the application is initialized
+        // and the 'fast' profile is active
+        // and the embedded broker is initialized
+        assertNotNull(embeddedKafkaBroker);
+        // when the configuration of the broker is described
+        final var config = brokerConfig();
+        // then a property set explicitly overrides the value of the profile
+        assertEquals("8388608", config.get("log.segment.bytes").value());
+        // and a property the profile does not set is applied as well
+        assertEquals("600000", config.get("log.retention.ms").value());
+    }
+
+    private Config brokerConfig() {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                final var brokerId = admin.describeCluster().nodes().get().stream()
+                        .map(Node::idString)
+                        .findFirst()
+                        .orElseThrow();
+                final var resource = new ConfigResource(ConfigResource.Type.BROKER, brokerId);
+                return admin.describeConfigs(List.of(resource)).all().get().get(resource);
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.config.KafkaConfig;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.repository.GuitarPedalRepository;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalConsumer;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalProducer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@DirtiesContext
+@ActiveProfiles("cluster")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class ClusterKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Autowired(required = false)
+    private KafkaConnectionDetails kafkaConnectionDetails;
+
+    @Autowired(required = false)
+    private GuitarPedalProducer guitarPedalProducer;
+
+    @SpyBean
+    private GuitarPedalConsumer guitarPedalConsumer;
+
+    @Autowired(required = false)
+    private GuitarPedalRepository guitarPedalRepository;
+
+    @Test
+    @Order(1)
+    void container_initialized() {
+        // given the application is initialized
+        // and the 'cluster' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+        // then two peer brokers are running
+        assertEquals(2, kafkaContainer.getPeers().size());
+        kafkaContainer.getPeers().forEach(peer -> assertTrue(peer.isRunning()));
+        // and the bootstrap servers list every broker
+        assertEquals(3, kafkaContainer.getBootstrapServers().split(",").length);
+        assertNotNull(kafkaConnectionDetails);
+        assertEquals(
+                List.of(kafkaContainer.getBootstrapServers().split(",")),
+                kafkaConnectionDetails.getBootstrapServers());
+    }
+
+    @Test
+    @Order(2)
+    void cluster_formed() throws Exception {
+        // given the application is initialized
+        // and the 'cluster' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        try (final var admin = Admin.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers()))) {
+            // then the cluster has 3 brokers
+            assertEquals(3, admin.describeCluster().nodes().get().size());
+            // and the configured topic is replicated to every broker
+            final var description = admin.describeTopics(List.of(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC))
+                    .allTopicNames().get()
+                    .get(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC);
+            assertEquals(3, description.partitions().size());
+            assertTrue(description.partitions().stream().allMatch(p -> p.replicas().size() == 3));
+        }
+    }
+
+    @Test
+    @Order(3)
+    void producesAndConsumes() {
+        // given the application is initialized
+        // and the 'cluster' profile is active
+        // and the producer is initialized
+        assertNotNull(guitarPedalProducer);
+        // and the consumer is initialized
+        assertNotNull(guitarPedalConsumer);
+        // and the repository is initialized
+        assertNotNull(guitarPedalRepository);
+        // and there are 3 pedals in the database
+        assertEquals(3L, guitarPedalRepository.count());
+        // when a new pedal is purchased
+        final var pedal = new GuitarPedal()
+                .withId(9L)
+                .withName("Strymon BigSky Reverberator");
+        // and a pedal purchased event is produced
+        guitarPedalProducer.guitarPedalPurchased(pedal);
+        await().pollInterval(Duration.ofSeconds(3))
+                .atMost(10L, SECONDS)
+                .untilAsserted(() -> {
+                    // then the consumer receives the event
+                    verify(guitarPedalConsumer, times(1)).guitarPedalPurchased(pedal);
+                    // and the new pedal is added to the database
+                    assertEquals(4L, guitarPedalRepository.count());
+                    final var optionalPedal = guitarPedalRepository.findById(pedal.getId());
+                    assertTrue(optionalPedal.isPresent());
+                    assertEquals(pedal.getId(), optionalPedal.get().getId());
+                    assertEquals(pedal.getName(), optionalPedal.get().getName());
+                });
+    }
+}
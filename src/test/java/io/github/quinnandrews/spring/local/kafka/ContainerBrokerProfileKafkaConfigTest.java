@@ -0,0 +1,77 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.config.ConfigResource;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("fast-container")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class ContainerBrokerProfileKafkaConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Test
+    @Order(1)
+    void profileProperties_passedAsEnvironment() {
+        // given the application is initialized
+        // and the 'fast-container' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+        // then the properties of the 'fast' broker profile reached the environment of the container
+        final var env = List.of(kafkaContainer.getContainerInfo().getConfig().getEnv());
+        assertTrue(env.contains("KAFKA_GROUP_INITIAL_REBALANCE_DELAY_MS=0"));
+        assertTrue(env.contains("KAFKA_LOG_CLEANER_DEDUPE_BUFFER_SIZE=4194304"));
+        assertTrue(env.contains("KAFKA_CONTROLLED_SHUTDOWN_ENABLE=false"));
+        // and a property set explicitly overrides the value of the profile
+        assertTrue(env.contains("KAFKA_LOG_SEGMENT_BYTES=8388608"));
+    }
+
+    @Test
+    @Order(2)
+    void profileProperties_reachBroker() throws Exception {
+        // given the application is initialized
+        // and the 'fast-container' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // when the configuration of the broker is described
+        final var config = brokerConfig();
+        // then the broker applied the properties of the 'fast' broker profile
+        assertEquals("0", config.get("group.initial.rebalance.delay.ms").value());
+        assertEquals("4194304", config.get("log.cleaner.dedupe.buffer.size").value());
+        // and the property set explicitly
+        assertEquals("8388608", config.get("log.segment.bytes").value());
+    }
+
+    private Config brokerConfig() throws Exception {
+        try (final var admin = Admin.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers()))) {
+            final var brokerId = admin.describeCluster().nodes().get().stream()
+                    .map(Node::idString)
+                    .findFirst()
+                    .orElseThrow();
+            final var resource = new ConfigResource(ConfigResource.Type.BROKER, brokerId);
+            return admin.describeConfigs(List.of(resource)).all().get().get(resource);
+        }
+    }
+}
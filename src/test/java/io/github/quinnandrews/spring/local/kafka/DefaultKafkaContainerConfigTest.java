@@ -1,6 +1,8 @@
 package io.github.quinnandrews.spring.local.kafka;
 
 import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.repository.GuitarPedalRepository;
+import io.github.quinnandrews.spring.local.kafka.config.KafkaContainerStartupMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.junit.jupiter.api.MethodOrderer;
@@ -21,6 +23,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.containers.KafkaContainer;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,6 +55,9 @@ public class DefaultKafkaContainerConfigTest {
     @Autowired(required = false)
     private GuitarPedalRepository guitarPedalRepository;
 
+    @Autowired(required = false)
+    private KafkaContainerStartupMetrics kafkaContainerStartupMetrics;
+
     @Test
     @Order(1)
     void container_initialized() {
@@ -134,4 +140,33 @@ public class DefaultKafkaContainerConfigTest {
                     assertEquals(pedal.getName(), optionalPedal.get().getName());
                 });
     }
+
+    @Test
+    @Order(5)
+    void startupTimings_published() {
+        // given the application is initialized
+        // and the 'default' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+        // and the startup metrics are initialized
+        assertNotNull(kafkaContainerStartupMetrics);
+        // when the startup metrics are bound to a registry
+        final var registry = new SimpleMeterRegistry();
+        kafkaContainerStartupMetrics.bindTo(registry);
+        // then the time taken to start the container is published
+        final var start = registry.find(KafkaContainerStartupMetrics.METER_NAME).tag("phase", "start").timer();
+        assertNotNull(start);
+        assertTrue(start.totalTime(TimeUnit.MILLISECONDS) > 100.0);
+        // and the total covers every phase, from before the image was resolved,
+        // rather than being restarted when Spring Boot starts the container bean again
+        final var total = registry.find(KafkaContainerStartupMetrics.METER_NAME).tag("phase", "total").timer();
+        assertNotNull(total);
+        final var phases = registry.find(KafkaContainerStartupMetrics.METER_NAME).timers().stream()
+                .filter(timer -> !"total".equals(timer.getId().getTag("phase")))
+                .mapToDouble(timer -> timer.totalTime(TimeUnit.MILLISECONDS))
+                .sum();
+        assertTrue(total.totalTime(TimeUnit.MILLISECONDS) >= phases - 1.0);
+        assertTrue(total.totalTime(TimeUnit.MILLISECONDS) > start.totalTime(TimeUnit.MILLISECONDS));
+    }
 }
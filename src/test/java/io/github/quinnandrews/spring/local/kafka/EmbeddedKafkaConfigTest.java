@@ -0,0 +1,175 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.config.KafkaConfig;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.repository.GuitarPedalRepository;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalConsumer;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalProducer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.KafkaContainer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@DirtiesContext
+@ActiveProfiles("embedded")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class EmbeddedKafkaConfigTest {
+
+    @Autowired(required = false)
+    private KafkaContainer kafkaContainer;
+
+    @Autowired(required = false)
+    private EmbeddedKafkaKraftBroker embeddedKafkaBroker;
+
+    @Autowired(required = false)
+    private KafkaConnectionDetails kafkaConnectionDetails;
+
+    @Autowired(required = false)
+    private ProducerFactory<Long, GuitarPedal> guitarPedalProducerFactory;
+
+    @Autowired(required = false)
+    private ConsumerFactory<Long, GuitarPedal> guitarPedalConsumerFactory;
+
+    @Autowired(required = false)
+    private GuitarPedalProducer guitarPedalProducer;
+
+    @SpyBean
+    private GuitarPedalConsumer guitarPedalConsumer;
+
+    @Autowired(required = false)
+    private GuitarPedalRepository guitarPedalRepository;
+
+    @Test
+    @Order(1)
+    void broker_initialized() {
+        // given the application is initialized
+        // and the 'embedded' profile is active
+        // then the container is not initialized
+        assertNull(kafkaContainer);
+        // but the embedded broker is initialized
+        assertNotNull(embeddedKafkaBroker);
+        assertNotNull(embeddedKafkaBroker.getBrokersAsString());
+        // and the connection details match the embedded broker
+        assertNotNull(kafkaConnectionDetails);
+        assertEquals(
+                List.of(embeddedKafkaBroker.getBrokersAsString()),
+                kafkaConnectionDetails.getBootstrapServers());
+        // and the configured topic was created with the configured partitions
+        final int partitions = embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                return admin.describeTopics(List.of(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC))
+                        .allTopicNames().get()
+                        .get(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC)
+                        .partitions().size();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(3, partitions);
+    }
+
+    @Test
+    @Order(2)
+    void producerFactory_initialized() {
+        // given the application is initialized
+        // and the 'embedded' profile is active
+        // and the embedded broker is initialized
+        assertNotNull(embeddedKafkaBroker);
+        // then the producerFactory is initialized
+        assertNotNull(guitarPedalProducerFactory);
+        // and the producerFactory matches the embedded broker
+        assertEquals(
+                embeddedKafkaBroker.getBrokersAsString(),
+                guitarPedalProducerFactory.getConfigurationProperties()
+                        .get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG)
+                        .toString());
+    }
+
+    @Test
+    @Order(3)
+    void consumerFactory_initialized() {
+        // given the application is initialized
+        // and the 'embedded' profile is active
+        // and the embedded broker is initialized
+        assertNotNull(embeddedKafkaBroker);
+        // then the consumerFactory is initialized
+        assertNotNull(guitarPedalConsumerFactory);
+        // and the consumerFactory matches the embedded broker
+        assertEquals(
+                embeddedKafkaBroker.getBrokersAsString(),
+                guitarPedalConsumerFactory.getConfigurationProperties()
+                        .get(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG)
+                        .toString());
+    }
+
+    @Test
+    @Order(4)
+    void producesAndConsumes() {
+        // given the application is initialized
+        // and the 'embedded' profile is active
+        // and the producer is initialized
+        assertNotNull(guitarPedalProducer);
+        // and the consumer is initialized
+        assertNotNull(guitarPedalConsumer);
+        // and the repository is initialized
+        assertNotNull(guitarPedalRepository);
+        // and there are 3 pedals in the database
+        assertEquals(3L, guitarPedalRepository.count());
+        // when a new pedal is purchased
+        final var pedal = new GuitarPedal()
+                .withId(10L)
+                .withName("Eventide Space Reverb");
+        // and a pedal purchased event is produced
+        guitarPedalProducer.guitarPedalPurchased(pedal);
+        await().pollInterval(Duration.ofSeconds(3))
+                .atMost(10L, SECONDS)
+                .untilAsserted(() -> {
+                    // then the consumer receives the event
+                    verify(guitarPedalConsumer, times(1)).guitarPedalPurchased(pedal);
+                    // and the new pedal is added to the database
+                    assertEquals(4L, guitarPedalRepository.count());
+                    final var optionalPedal = guitarPedalRepository.findById(pedal.getId());
+                    assertTrue(optionalPedal.isPresent());
+                    assertEquals(pedal.getId(), optionalPedal.get().getId());
+                    assertEquals(pedal.getName(), optionalPedal.get().getName());
+                });
+    }
+
+    @Test
+    @Order(5)
+    void bootstrapServers_notPublishedToLaterContexts() {
+        // given the application is initialized
+        // and the 'embedded' profile is active
+        // and the embedded broker is initialized
+        assertNotNull(embeddedKafkaBroker);
+        // then the address of the broker is not published as the System property
+        // that Spring Boot reads, which would outlive the broker
+        assertNull(System.getProperty("spring.kafka.bootstrap-servers"));
+        // and it is published under a property of its own instead
+        assertEquals(embeddedKafkaBroker.getBrokersAsString(),
+                System.getProperty("spring.local.kafka.embedded.brokers"));
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("jmx")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class JmxKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Test
+    @Order(1)
+    void container_initialized() {
+        // given the application is initialized
+        // and the 'jmx' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+    }
+
+    @Test
+    @Order(2)
+    void jmx_exposed() throws Exception {
+        // given the application is initialized
+        // and the 'jmx' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // then the JMX port of the broker is exposed
+        assertNotNull(kafkaContainer.getJmxServiceUrl());
+        try (final var connector = JMXConnectorFactory.connect(new JMXServiceURL(kafkaContainer.getJmxServiceUrl()))) {
+            // and the broker reports that it is running
+            assertNotNull(connector.getMBeanServerConnection().getAttribute(
+                    new ObjectName("kafka.server:type=KafkaServer,name=BrokerState"), "Value"));
+        }
+    }
+
+    @Test
+    @Order(3)
+    void jfr_started() {
+        // given the application is initialized
+        // and the 'jmx' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // then the broker JVM is recording a flight recording
+        assertTrue(kafkaContainer.getEnvMap().get("KAFKA_OPTS").contains("-XX:StartFlightRecording"));
+    }
+}
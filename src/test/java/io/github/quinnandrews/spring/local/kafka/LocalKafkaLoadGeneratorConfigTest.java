@@ -0,0 +1,108 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.loadgen.LocalKafkaLoadGenerator;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("loadgen")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class LocalKafkaLoadGeneratorConfigTest {
+
+    @Autowired(required = false)
+    private EmbeddedKafkaKraftBroker embeddedKafkaBroker;
+
+    @Autowired(required = false)
+    private LocalKafkaLoadGenerator loadGenerator;
+
+    @Test
+    @Order(1)
+    void loadGenerator_initialized() {
+        // given the application is initialized
+        // and the 'loadgen' profile is active
+        // then the load generator is initialized
+        assertNotNull(loadGenerator);
+        // but has not started, since auto-start is disabled by default
+        assertFalse(loadGenerator.isAutoStartup());
+        assertFalse(loadGenerator.isRunning());
+        assertNull(loadGenerator.getLastReport());
+    }
+
+    @Test
+    @Order(2)
+    void generatesAtMaximumThroughput() {
+        // given the application is initialized
+        // and the 'loadgen' profile is active
+        // and the load generator is initialized
+        assertNotNull(loadGenerator);
+        // when a run is started in max-throughput mode
+        final var report = loadGenerator.run();
+        // then every record is acknowledged
+        assertEquals(50_000L, report.records());
+        assertEquals(0L, report.failures());
+        assertEquals(50_000L * 512, report.bytes());
+        assertTrue(report.recordsPerSecond() > 0);
+        // and the latency percentiles are ordered
+        assertTrue(report.p50().compareTo(report.p99()) <= 0);
+        assertTrue(report.p99().compareTo(report.max()) <= 0);
+        // and the histogram accounts for every record
+        assertEquals(50_000L, report.histogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(report, loadGenerator.getLastReport());
+        // and the records are in the topic
+        assertEquals(50_000L, endOffsets("load"));
+    }
+
+    @Test
+    @Order(3)
+    void generatesAtTargetRate() {
+        // given the application is initialized
+        // and the 'loadgen' profile is active
+        // and the load generator is initialized
+        assertNotNull(loadGenerator);
+        // when a run is started at 1000 records per second for 1000 records
+        final var report = loadGenerator.withRate(1_000)
+                .withRecords(1_000L)
+                .run();
+        // then every record is acknowledged
+        assertEquals(1_000L, report.records());
+        // and sending is paced to the target rate
+        assertTrue(report.elapsed().compareTo(Duration.ofMillis(900)) >= 0);
+        assertTrue(report.recordsPerSecond() < 1_200);
+    }
+
+    private long endOffsets(final String topic) {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                final var partitions = admin.describeTopics(List.of(topic)).allTopicNames().get()
+                        .get(topic).partitions().stream()
+                        .map(p -> new TopicPartition(topic, p.partition()))
+                        .collect(Collectors.toMap(Function.identity(), p -> OffsetSpec.latest()));
+                return admin.listOffsets(partitions)
+                        .all().get().values().stream()
+                        .mapToLong(ListOffsetsResultInfo::offset)
+                        .sum();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
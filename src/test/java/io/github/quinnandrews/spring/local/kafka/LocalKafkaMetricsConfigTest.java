@@ -0,0 +1,126 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.config.KafkaBrokerMetrics;
+import io.github.quinnandrews.spring.local.kafka.metrics.LocalKafkaMetricsCollector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@DirtiesContext
+@AutoConfigureMockMvc
+@ActiveProfiles("metrics")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class LocalKafkaMetricsConfigTest {
+
+    private static final String LAGGING_TOPIC = "lagging";
+    private static final String LAGGING_GROUP = "lagging-group";
+
+    @Autowired(required = false)
+    private EmbeddedKafkaKraftBroker embeddedKafkaBroker;
+
+    @Autowired(required = false)
+    private LocalKafkaMetricsCollector metricsCollector;
+
+    @Autowired(required = false)
+    private KafkaBrokerMetrics kafkaBrokerMetrics;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @Order(1)
+    void collector_initialized() {
+        // given the application is initialized
+        // and the 'metrics' profile is active
+        // then the collector is initialized and running
+        assertNotNull(metricsCollector);
+        assertTrue(metricsCollector.isRunning());
+        // and the meter binder is initialized
+        assertNotNull(kafkaBrokerMetrics);
+    }
+
+    @Test
+    @Order(2)
+    void lag_collected() throws Exception {
+        // given the application is initialized
+        // and the 'metrics' profile is active
+        assertNotNull(embeddedKafkaBroker);
+        // when 10 records are produced
+        try (final var producer = new KafkaProducer<String, String>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafkaBroker.getBrokersAsString()),
+                new StringSerializer(), new StringSerializer())) {
+            for (var i = 0; i < 10; i++) {
+                producer.send(new ProducerRecord<>(LAGGING_TOPIC, 0, null, "record-" + i));
+            }
+        }
+        // and a consumer group has committed the offset of the first record only
+        embeddedKafkaBroker.doWithAdmin(admin -> {
+            try {
+                admin.alterConsumerGroupOffsets(LAGGING_GROUP,
+                        Map.of(new TopicPartition(LAGGING_TOPIC, 0), new OffsetAndMetadata(1))).all().get();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // and the metrics are bound to a registry
+        final var registry = new SimpleMeterRegistry();
+        kafkaBrokerMetrics.bindTo(registry);
+        await().pollInterval(Duration.ofMillis(500))
+                .atMost(10L, SECONDS)
+                .untilAsserted(() -> {
+                    // then the lag of the consumer group is collected
+                    assertEquals(9L, metricsCollector.getSnapshot().getLag(LAGGING_GROUP));
+                    // and the topic has a size
+                    assertTrue(metricsCollector.getSnapshot().topicSizes().getOrDefault(LAGGING_TOPIC, 0L) > 0);
+                    // and the lag is published as a gauge
+                    final var gauge = registry.find(KafkaBrokerMetrics.CONSUMER_LAG)
+                            .tag("group", LAGGING_GROUP)
+                            .tag("topic", LAGGING_TOPIC)
+                            .gauge();
+                    assertNotNull(gauge);
+                    assertEquals(9.0, gauge.value());
+                    assertNotNull(registry.find(KafkaBrokerMetrics.TOPIC_SIZE).tag("topic", LAGGING_TOPIC).gauge());
+                });
+    }
+
+    @Test
+    @Order(3)
+    void endpoint_served() throws Exception {
+        // given the application is initialized
+        // and the 'metrics' profile is active
+        // when the endpoint is requested
+        mockMvc.perform(get("/local-kafka/metrics"))
+                // then the latest metrics are served
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consumerLag['" + LAGGING_GROUP + "']['" + LAGGING_TOPIC + "']").value(9))
+                .andExpect(jsonPath("$.topicSizes['" + LAGGING_TOPIC + "']").isNumber())
+                .andExpect(jsonPath("$.adminLatencyMillis").isNumber());
+    }
+}
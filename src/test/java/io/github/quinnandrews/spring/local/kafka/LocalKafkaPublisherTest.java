@@ -0,0 +1,151 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.config.KafkaConfig;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalProducer;
+import io.github.quinnandrews.spring.local.kafka.publish.LocalKafkaPublisher;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DirtiesContext
+@ActiveProfiles("publish")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class LocalKafkaPublisherTest {
+
+    private static final int RECORDS = 2_000;
+
+    @Autowired(required = false)
+    private KafkaTemplate<Long, GuitarPedal> pedalKafkaTemplate;
+
+    @Autowired(required = false)
+    private GuitarPedalProducer guitarPedalProducer;
+
+    @Test
+    @Order(1)
+    void publishAll_completesWithResultsInOrder() throws Exception {
+        // given the application is initialized
+        // and the 'publish' profile is active
+        // then the producer is initialized
+        assertNotNull(guitarPedalProducer);
+        // when a batch of records is published
+        final var pedals = pedals(0L, RECORDS);
+        final var publisher = new LocalKafkaPublisher<>(pedalKafkaTemplate);
+        final var results = publisher.publishAll(pedals.stream()
+                        .map(pedal -> new ProducerRecord<>(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC, pedal.getId(), pedal))
+                        .toList())
+                .get(10, SECONDS);
+        // then every record is acknowledged, in the order it was published
+        assertEquals(RECORDS, results.size());
+        for (var i = 0; i < RECORDS; i++) {
+            assertEquals(pedals.get(i).getId(), results.get(i).getProducerRecord().key());
+            assertTrue(results.get(i).getRecordMetadata().hasOffset());
+        }
+        // and none are left in flight
+        assertEquals(0, publisher.getInFlight());
+        // and the batch method of the producer publishes through it as well
+        assertDoesNotThrow(() -> guitarPedalProducer.guitarPedalsPurchased(pedals(RECORDS, RECORDS)));
+    }
+
+    @Test
+    @Order(2)
+    @SuppressWarnings("unchecked")
+    void publish_blocksWhileMaxInFlightReached() throws Exception {
+        // given a publisher that allows two records in flight, and waits for 500 ms at most
+        final KafkaOperations<Long, GuitarPedal> kafkaOperations = mock(KafkaOperations.class);
+        final var pending = new ConcurrentLinkedQueue<CompletableFuture<SendResult<Long, GuitarPedal>>>();
+        when(kafkaOperations.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            final var future = new CompletableFuture<SendResult<Long, GuitarPedal>>();
+            pending.add(future);
+            return future;
+        });
+        final var publisher = new LocalKafkaPublisher<>(kafkaOperations)
+                .withMaxInFlight(2)
+                .withBackpressureTimeout(Duration.ofMillis(500));
+        // and two records are in flight, which the broker has not acknowledged
+        publisher.publish(record(30_000L));
+        publisher.publish(record(30_001L));
+        assertEquals(2, publisher.getInFlight());
+        // when a third record is published
+        final var begin = System.nanoTime();
+        final var timedOut = publisher.publish(record(30_002L));
+        // then publishing blocks until the backpressure timeout expires, and the record fails without being sent
+        assertTrue(System.nanoTime() - begin >= Duration.ofMillis(500).toNanos());
+        final var exception = assertThrows(ExecutionException.class, timedOut::get);
+        assertInstanceOf(KafkaException.class, exception.getCause());
+        verify(kafkaOperations, times(2)).send(any(ProducerRecord.class));
+        // when one of the records in flight is acknowledged while another record is published
+        final var acknowledgement = CompletableFuture.runAsync(() -> {
+            LockSupport.parkNanos(Duration.ofMillis(100).toNanos());
+            pending.poll().complete(null);
+        });
+        final var unblocked = publisher.publish(record(30_003L));
+        acknowledgement.get(10, SECONDS);
+        // then that record is sent as soon as the acknowledgement frees a slot
+        assertFalse(unblocked.isCompletedExceptionally());
+        verify(kafkaOperations, times(3)).send(any(ProducerRecord.class));
+        assertEquals(2, publisher.getInFlight());
+        // and none are left in flight once the rest are acknowledged
+        pending.forEach(future -> future.complete(null));
+        assertEquals(0, publisher.getInFlight());
+    }
+
+    @Test
+    @Order(3)
+    void publishAll_failsBatchWhenRecordFails() throws Exception {
+        // given the application is initialized
+        // and the 'publish' profile is active
+        final var publisher = new LocalKafkaPublisher<>(pedalKafkaTemplate);
+        // when a batch is published in which one record is larger than the producer accepts
+        final var tooLarge = new GuitarPedal().withId(20_001L).withName("x".repeat(2 * 1024 * 1024));
+        final var records = List.of(
+                new ProducerRecord<>(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC, 20_000L, pedal(20_000L)),
+                new ProducerRecord<>(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC, 20_001L, tooLarge),
+                new ProducerRecord<>(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC, 20_002L, pedal(20_002L)));
+        final var batch = publisher.publishAll(records);
+        // then the aggregate Future of the batch fails
+        final var exception = assertThrows(ExecutionException.class, () -> batch.get(10, SECONDS));
+        assertInstanceOf(KafkaException.class, exception.getCause());
+        assertEquals("Could not publish 1 of 3 record(s).", exception.getCause().getMessage());
+        // and no records are left in flight
+        assertEquals(0, publisher.getInFlight());
+    }
+
+    private static ProducerRecord<Long, GuitarPedal> record(final long id) {
+        return new ProducerRecord<>(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC, id, pedal(id));
+    }
+
+    private static List<GuitarPedal> pedals(final long firstId, final int count) {
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(LocalKafkaPublisherTest::pedal)
+                .toList();
+    }
+
+    private static GuitarPedal pedal(final long id) {
+        return new GuitarPedal().withId(id).withName("Big Muff Pi #" + id);
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.reset.LocalKafkaReset;
+import io.github.quinnandrews.spring.local.kafka.reset.LocalKafkaResetter;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("reset")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+@LocalKafkaReset(phase = LocalKafkaReset.Phase.BEFORE_EACH_TEST)
+public class LocalKafkaResetterTest {
+
+    private static final String GROUP = "reset-test";
+
+    @Autowired(required = false)
+    private EmbeddedKafkaKraftBroker embeddedKafkaBroker;
+
+    @Autowired(required = false)
+    private LocalKafkaResetter resetter;
+
+    @Test
+    @Order(1)
+    void records_produced() {
+        // given the application is initialized
+        // and the 'reset' profile is active
+        // then the resetter is initialized
+        assertNotNull(resetter);
+        // when records are produced
+        produce("reset-truncated", 5);
+        // then the topic holds them
+        assertEquals(5L, records("reset-truncated"));
+    }
+
+    @Test
+    @Order(2)
+    void records_clearedBeforeEachTest() {
+        // given the application is initialized
+        // and the 'reset' profile is active
+        // and records were produced by the previous test
+        // then the topic was cleared before this test, without restarting the broker
+        assertEquals(0L, records("reset-truncated"));
+        assertTrue(endOffsets("reset-truncated").values().stream().mapToLong(Long::longValue).sum() >= 5L);
+    }
+
+    @Test
+    @Order(3)
+    void truncate_resetsOffsets() {
+        // given the application is initialized
+        // and the 'reset' profile is active
+        // and records were produced
+        produce("reset-truncated", 4);
+        // and an empty consumer group has committed an offset behind the end of the topic
+        final var partition = new TopicPartition("reset-truncated", 0);
+        commit(partition, 1L);
+        // when the topic is truncated
+        resetter.reset(List.of("reset-truncated"), LocalKafkaResetter.Strategy.TRUNCATE);
+        // then the topic holds no records
+        assertEquals(0L, records("reset-truncated"));
+        // and the committed offset of the consumer group was moved to the end of the topic
+        assertEquals(endOffsets("reset-truncated").get(partition), committed().get(partition).offset());
+    }
+
+    @Test
+    @Order(4)
+    void recreate_keepsPartitionsAndConfigs() {
+        // given the application is initialized
+        // and the 'reset' profile is active
+        // and records were produced
+        produce("reset-recreated", 3);
+        // and an empty consumer group has committed an offset
+        commit(new TopicPartition("reset-recreated", 0), 1L);
+        // when the topic is recreated
+        resetter.reset(List.of("reset-recreated"), LocalKafkaResetter.Strategy.RECREATE);
+        // then the topic starts again from offset zero
+        assertEquals(0L, endOffsets("reset-recreated").values().stream().mapToLong(Long::longValue).sum());
+        // and it keeps its partitions and configs
+        assertEquals(2, endOffsets("reset-recreated").size());
+        final String retention = embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                final var resource = new ConfigResource(ConfigResource.Type.TOPIC, "reset-recreated");
+                return admin.describeConfigs(List.of(resource)).all().get().get(resource).get("retention.ms").value();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals("3600000", retention);
+        // and the committed offset of the consumer group was deleted
+        assertFalse(committed().containsKey(new TopicPartition("reset-recreated", 0)));
+        // and records can be produced right away
+        produce("reset-recreated", 1);
+        assertEquals(1L, records("reset-recreated"));
+    }
+
+    private void produce(final String topic, final int count) {
+        try (final var producer = new KafkaProducer<String, String>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafkaBroker.getBrokersAsString()),
+                new StringSerializer(), new StringSerializer())) {
+            for (var i = 0; i < count; i++) {
+                producer.send(new ProducerRecord<>(topic, 0, "key-" + i, "value-" + i)).get();
+            }
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void commit(final TopicPartition partition, final long offset) {
+        embeddedKafkaBroker.doWithAdmin(admin -> {
+            try {
+                admin.alterConsumerGroupOffsets(GROUP, Map.of(partition, new OffsetAndMetadata(offset))).all().get();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> committed() {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                return admin.listConsumerGroupOffsets(GROUP).partitionsToOffsetAndMetadata().get();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private long records(final String topic) {
+        final var earliest = offsets(topic, OffsetSpec.earliest());
+        return offsets(topic, OffsetSpec.latest()).entrySet().stream()
+                .mapToLong(entry -> entry.getValue() - earliest.get(entry.getKey()))
+                .sum();
+    }
+
+    private Map<TopicPartition, Long> endOffsets(final String topic) {
+        return offsets(topic, OffsetSpec.latest());
+    }
+
+    private Map<TopicPartition, Long> offsets(final String topic, final OffsetSpec spec) {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                final var partitions = admin.describeTopics(List.of(topic)).allTopicNames().get()
+                        .get(topic).partitions().stream()
+                        .map(p -> new TopicPartition(topic, p.partition()))
+                        .collect(Collectors.toMap(Function.identity(), p -> spec));
+                return admin.listOffsets(partitions).all().get().entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
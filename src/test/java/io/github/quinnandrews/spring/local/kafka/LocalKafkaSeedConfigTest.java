@@ -0,0 +1,122 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.seed.LocalKafkaSeed;
+import io.github.quinnandrews.spring.local.kafka.seed.LocalKafkaSeeder;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("seed")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class LocalKafkaSeedConfigTest {
+
+    @Autowired(required = false)
+    private EmbeddedKafkaKraftBroker embeddedKafkaBroker;
+
+    @Autowired(required = false)
+    private LocalKafkaSeeder seeder;
+
+    @Test
+    @Order(1)
+    void topics_seeded() {
+        // given the application is initialized
+        // and the 'seed' profile is active
+        // then the seeder is initialized
+        assertNotNull(seeder);
+        // and every non-blank line of the NDJSON file was loaded
+        assertEquals(5L, endOffsets("seeded-pedals"));
+        // and every line of the key/value file, and every record of the binary file, was loaded
+        assertEquals(5L, endOffsets("seeded-lines"));
+    }
+
+    @Test
+    @Order(2)
+    void keys_extracted() {
+        // given the application is initialized
+        // and the 'seed' profile is active
+        // when the seeded topics are consumed
+        final var pedals = consume("seeded-pedals", 5);
+        final var lines = consume("seeded-lines", 5);
+        // then the NDJSON records are keyed by the key field
+        assertEquals("{\"id\":3,\"name\":\"Boss DS-1 Distortion\"}", pedals.get("3"));
+        // and the key/value records are split at the separator
+        assertEquals("Ibanez Tube Screamer", lines.get("ibanez"));
+        // and the binary records keep their keys
+        assertTrue(lines.containsKey("boss"));
+    }
+
+    @Test
+    @Order(3)
+    void reseeding_skipped() {
+        // given the application is initialized
+        // and the 'seed' profile is active
+        assertNotNull(seeder);
+        // when the same file is seeded again
+        final var records = seeder.seed(List.of(
+                new LocalKafkaSeed("seeded-pedals", "classpath:seed/pedals.ndjson", null, "id", null)));
+        // then the topic, which already holds records, is skipped
+        assertEquals(0L, records);
+        assertEquals(5L, endOffsets("seeded-pedals"));
+    }
+
+    private long endOffsets(final String topic) {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                final var partitions = admin.describeTopics(List.of(topic)).allTopicNames().get()
+                        .get(topic).partitions().stream()
+                        .map(p -> new TopicPartition(topic, p.partition()))
+                        .collect(Collectors.toMap(Function.identity(), p -> OffsetSpec.latest()));
+                return admin.listOffsets(partitions)
+                        .all().get().values().stream()
+                        .mapToLong(ListOffsetsResultInfo::offset)
+                        .sum();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private Map<String, String> consume(final String topic, final int count) {
+        final var records = new HashMap<String, String>();
+        try (final var consumer = new KafkaConsumer<String, String>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafkaBroker.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, "seed-test-" + topic,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of(topic));
+            var received = 0;
+            final var deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (received < count && System.nanoTime() < deadline) {
+                for (final var record : consumer.poll(Duration.ofMillis(200))) {
+                    records.put(record.key(), record.value());
+                    received++;
+                }
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.config.KafkaConfig;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.repository.GuitarPedalRepository;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalConsumer;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalProducer;
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespace;
+import io.github.quinnandrews.spring.local.kafka.namespace.LocalKafkaNamespaceManager;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@DirtiesContext
+@ActiveProfiles("namespace")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class NamespacedKafkaConfigTest {
+
+    @Autowired(required = false)
+    private EmbeddedKafkaKraftBroker embeddedKafkaBroker;
+
+    @Autowired(required = false)
+    private LocalKafkaNamespace namespace;
+
+    @Autowired(required = false)
+    private LocalKafkaNamespaceManager namespaceManager;
+
+    @Autowired(required = false)
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Autowired(required = false)
+    private GuitarPedalProducer guitarPedalProducer;
+
+    @SpyBean
+    private GuitarPedalConsumer guitarPedalConsumer;
+
+    @Autowired(required = false)
+    private GuitarPedalRepository guitarPedalRepository;
+
+    @Test
+    @Order(1)
+    void namespace_initialized() {
+        // given the application is initialized
+        // and the 'namespace' profile is active
+        // then the namespace is initialized with a random prefix
+        assertNotNull(namespace);
+        assertTrue(namespace.getPrefix().startsWith("lk-"));
+        // and the configured topic was created inside the namespace, with the configured partitions
+        final var topic = namespace.apply(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC);
+        assertTrue(topicNames().contains(topic));
+        final Integer partitions = embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                return admin.describeTopics(List.of(topic)).allTopicNames().get().get(topic).partitions().size();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(3, partitions);
+    }
+
+    @Test
+    @Order(2)
+    void producesAndConsumes() {
+        // given the application is initialized
+        // and the 'namespace' profile is active
+        // and the producer is initialized
+        assertNotNull(guitarPedalProducer);
+        // and the consumer is initialized
+        assertNotNull(guitarPedalConsumer);
+        // and there are 3 pedals in the database
+        assertEquals(3L, guitarPedalRepository.count());
+        // when a new pedal is purchased
+        final var pedal = new GuitarPedal()
+                .withId(8L)
+                .withName("Walrus Audio Slö Multi Texture Reverb");
+        // and a pedal purchased event is produced
+        guitarPedalProducer.guitarPedalPurchased(pedal);
+        await().pollInterval(Duration.ofSeconds(3))
+                .atMost(10L, SECONDS)
+                .untilAsserted(() -> {
+                    // then the consumer receives the event
+                    verify(guitarPedalConsumer, times(1)).guitarPedalPurchased(pedal);
+                    // and the new pedal is added to the database
+                    assertEquals(4L, guitarPedalRepository.count());
+                });
+        // and the event was sent to the topic inside the namespace, not to the shared topic
+        assertEquals(1L, records(namespace.apply(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC)));
+        assertEquals(0L, records(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC));
+        // and the consumer group is inside the namespace
+        assertTrue(groupIds().contains(namespace.apply("local-dev")));
+        assertFalse(groupIds().contains("local-dev"));
+    }
+
+    @Test
+    @Order(3)
+    void namespace_cleanedUp() throws Exception {
+        // given the application is initialized
+        // and the 'namespace' profile is active
+        assertNotNull(namespaceManager);
+        // when the listeners are stopped
+        kafkaListenerEndpointRegistry.stop();
+        // and the namespace is cleaned up
+        namespaceManager.cleanup().get(30, SECONDS);
+        // then no topic or consumer group is left inside the namespace
+        await().atMost(10L, SECONDS)
+                .untilAsserted(() -> assertTrue(topicNames().stream().noneMatch(namespace::contains)));
+        assertTrue(groupIds().stream().noneMatch(namespace::contains));
+        // and the shared topic is left as it is
+        assertTrue(topicNames().contains(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC));
+    }
+
+    private List<String> topicNames() {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                return List.copyOf(admin.listTopics().names().get());
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private List<String> groupIds() {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                return admin.listConsumerGroups().all().get().stream()
+                        .map(ConsumerGroupListing::groupId)
+                        .toList();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private long records(final String topic) {
+        return embeddedKafkaBroker.doWithAdminFunction(admin -> {
+            try {
+                final var partitions = admin.describeTopics(List.of(topic)).allTopicNames().get()
+                        .get(topic).partitions().size();
+                return admin.listOffsets(IntStream.range(0, partitions)
+                                .mapToObj(partition -> new TopicPartition(topic, partition))
+                                .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest())))
+                        .all().get().values().stream()
+                        .mapToLong(ListOffsetsResultInfo::offset)
+                        .sum();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.repository.GuitarPedalRepository;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalConsumer;
+import io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals.GuitarPedalProducer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@DirtiesContext
+@ActiveProfiles("network")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class NetworkKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Autowired(required = false)
+    private GuitarPedalProducer guitarPedalProducer;
+
+    @SpyBean
+    private GuitarPedalConsumer guitarPedalConsumer;
+
+    @Autowired(required = false)
+    private GuitarPedalRepository guitarPedalRepository;
+
+    @Test
+    @Order(1)
+    void container_initialized() {
+        // given the application is initialized
+        // and the 'network' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+        // then the proxy is running with the configured conditions
+        final var networkProxy = kafkaContainer.getNetworkProxy();
+        assertNotNull(networkProxy);
+        assertTrue(networkProxy.isRunning());
+        assertEquals(Duration.ofMillis(20), networkProxy.getConditions().latency());
+        assertEquals(Duration.ofMillis(5), networkProxy.getConditions().jitter());
+        assertEquals(DataSize.ofMegabytes(1), networkProxy.getConditions().bandwidth());
+        // and the bootstrap servers URL is the address of the proxy
+        assertEquals(networkProxy.getBootstrapServers(), kafkaContainer.getBootstrapServers());
+    }
+
+    @Test
+    @Order(2)
+    void latency_applied() throws Exception {
+        // given the application is initialized
+        // and the 'network' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        try (final var admin = Admin.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers()))) {
+            // when a metadata request is sent through the proxy
+            final var begin = System.nanoTime();
+            admin.describeCluster().nodes().get();
+            // then it takes at least one round trip of the configured latency
+            assertTrue(Duration.ofNanos(System.nanoTime() - begin).toMillis() >= 30);
+        }
+    }
+
+    @Test
+    @Order(3)
+    void producesAndConsumes() {
+        // given the application is initialized
+        // and the 'network' profile is active
+        // and the producer is initialized
+        assertNotNull(guitarPedalProducer);
+        // and the consumer is initialized
+        assertNotNull(guitarPedalConsumer);
+        // and the repository is initialized
+        assertNotNull(guitarPedalRepository);
+        // and there are 3 pedals in the database
+        assertEquals(3L, guitarPedalRepository.count());
+        // when a new pedal is purchased
+        final var pedal = new GuitarPedal()
+                .withId(11L)
+                .withName("Keeley Compressor Plus");
+        // and a pedal purchased event is produced
+        guitarPedalProducer.guitarPedalPurchased(pedal);
+        await().pollInterval(Duration.ofSeconds(3))
+                .atMost(15L, SECONDS)
+                .untilAsserted(() -> {
+                    // then the consumer receives the event
+                    verify(guitarPedalConsumer, times(1)).guitarPedalPurchased(pedal);
+                    // and the new pedal is added to the database
+                    assertEquals(4L, guitarPedalRepository.count());
+                    final var optionalPedal = guitarPedalRepository.findById(pedal.getId());
+                    assertTrue(optionalPedal.isPresent());
+                    assertEquals(pedal.getId(), optionalPedal.get().getId());
+                    assertEquals(pedal.getName(), optionalPedal.get().getName());
+                });
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaDataDirectory;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("persistent")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class PersistentKafkaContainerConfigTest {
+
+    private static final String TOPIC = "persisted-pedals";
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Test
+    @Order(1)
+    void container_initialized() {
+        // given the application is initialized
+        // and the 'persistent' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+        // then the container matches the 'persistent' configuration
+        assertEquals("/local_kafka_persistent", kafkaContainer.getContainerName());
+        assertNotNull(kafkaContainer.getDataDirectory());
+        // and the data of the broker is kept in the data directory of the host
+        assertTrue(Files.isRegularFile(kafkaContainer.getDataDirectory()
+                .resolve(LocalKafkaDataDirectory.KAFKA_DIRECTORY).resolve("meta.properties")));
+        assertTrue(Files.isDirectory(kafkaContainer.getDataDirectory()
+                .resolve(LocalKafkaDataDirectory.KAFKA_DIRECTORY).resolve(TOPIC + "-0")));
+    }
+
+    @Test
+    @Order(2)
+    void records_restored() throws Exception {
+        // given the application is initialized
+        // and the 'persistent' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // and records have been sent to a topic
+        try (final var producer = new KafkaProducer<String, String>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers()),
+                new StringSerializer(), new StringSerializer())) {
+            IntStream.range(0, 1000).forEach(i -> producer.send(new ProducerRecord<>(TOPIC, "pedal-" + i)));
+        }
+        final var records = endOffset(kafkaContainer.getBootstrapServers());
+        assertTrue(records >= 1000);
+        // when the container is stopped
+        kafkaContainer.stop();
+        // and its data directory is archived
+        final var archive = Path.of("target", "kafka-data", "persistent.tar.gz");
+        assertTrue(kafkaContainer.getDataDirectory().snapshot(archive) > 0);
+        // and restored to another directory
+        final var restored = LocalKafkaDataDirectory.of(Path.of("target", "kafka-data", "restored"));
+        assertTrue(restored.restore(archive) > 0);
+        // and a new container is started with the restored directory
+        try (final var container = new LocalKafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.3.5"))
+                .withDataDirectory(restored)) {
+            container.start();
+            // then the records are still there
+            assertEquals(records, endOffset(container.getBootstrapServers()));
+        }
+    }
+
+    private static long endOffset(final String bootstrapServers) throws Exception {
+        try (final var admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            return admin.listOffsets(Map.of(new TopicPartition(TOPIC, 0), OffsetSpec.latest()))
+                    .all().get(30, TimeUnit.SECONDS)
+                    .values().iterator().next().offset();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("resources")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class ResourcesKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Test
+    @Order(1)
+    void container_initialized() {
+        // given the application is initialized
+        // and the 'resources' profile is active
+        // then the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+    }
+
+    @Test
+    @Order(2)
+    void resourceLimits_applied() {
+        // given the application is initialized
+        // and the 'resources' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // then the container is limited to the configured CPUs and memory, without swap
+        final var hostConfig = kafkaContainer.getContainerInfo().getHostConfig();
+        assertEquals(1_500_000_000L, hostConfig.getNanoCPUs());
+        assertEquals(1024L * 1024 * 1024, hostConfig.getMemory());
+        assertEquals(hostConfig.getMemory(), hostConfig.getMemorySwap());
+    }
+
+    @Test
+    @Order(3)
+    void jvmOptions_applied() {
+        // given the application is initialized
+        // and the 'resources' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // then the broker JVM is started with the configured options
+        final var env = kafkaContainer.getEnvMap();
+        assertEquals("-Xms256m -Xmx256m", env.get("KAFKA_HEAP_OPTS"));
+        assertEquals("-server -XX:+UseSerialGC", env.get("KAFKA_JVM_PERFORMANCE_OPTS"));
+        // and those options reached the environment of the running container
+        final var containerEnv = List.of(kafkaContainer.getContainerInfo().getConfig().getEnv());
+        assertTrue(containerEnv.contains("KAFKA_HEAP_OPTS=-Xms256m -Xmx256m"));
+        assertTrue(containerEnv.contains("KAFKA_JVM_PERFORMANCE_OPTS=-server -XX:+UseSerialGC"));
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaSchemaRegistry;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.utility.DockerImageName;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("schema-registry")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class SchemaRegistryKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Autowired(required = false)
+    private ProducerFactory<Long, GuitarPedal> guitarPedalProducerFactory;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void schemaRegistry_initialized() {
+        // given the application is initialized
+        // and the 'schema-registry' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+        // then the schema registry is running
+        final var schemaRegistry = kafkaContainer.getSchemaRegistry();
+        assertNotNull(schemaRegistry);
+        assertTrue(schemaRegistry.isRunning());
+        // and it matches the version of the broker
+        assertEquals("confluentinc/cp-schema-registry:7.4.0", schemaRegistry.getDockerImageName());
+        // and it shares the network of the broker
+        assertEquals(kafkaContainer.getNetwork(), schemaRegistry.getNetwork());
+    }
+
+    @Test
+    @Order(2)
+    void url_registered() {
+        // given the application is initialized
+        // and the 'schema-registry' profile is active
+        // and the schema registry is running
+        final var url = kafkaContainer.getSchemaRegistry().getUrl();
+        // then its URL is registered as a property
+        assertEquals(url, environment.getProperty("spring.local.kafka.schema-registry.url"));
+        // and it is passed to serializers
+        assertEquals(url, guitarPedalProducerFactory.getConfigurationProperties().get("schema.registry.url"));
+    }
+
+    @Test
+    @Order(3)
+    void schema_registered() throws Exception {
+        // given the application is initialized
+        // and the 'schema-registry' profile is active
+        // and the schema registry is running
+        final var url = environment.getProperty("spring.local.kafka.schema-registry.url");
+        final var httpClient = HttpClient.newHttpClient();
+        // when a schema is registered
+        final var registered = httpClient.send(HttpRequest.newBuilder()
+                        .uri(URI.create(url + "/subjects/pedal-purchased-on-reverb-value/versions"))
+                        .header("Content-Type", "application/vnd.schemaregistry.v1+json")
+                        .POST(HttpRequest.BodyPublishers.ofString("""
+                                {"schema": "{\\"type\\":\\"record\\",\\"name\\":\\"GuitarPedal\\",\\"fields\\":[{\\"name\\":\\"id\\",\\"type\\":\\"long\\"},{\\"name\\":\\"name\\",\\"type\\":\\"string\\"}]}"}
+                                """))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        // then it is accepted
+        assertEquals(200, registered.statusCode());
+        assertTrue(registered.body().contains("\"id\""));
+        // and it can be read back, from the broker it is stored in
+        final var subjects = httpClient.send(HttpRequest.newBuilder()
+                        .uri(URI.create(url + "/subjects"))
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(subjects.body().contains("pedal-purchased-on-reverb-value"));
+    }
+
+    @Test
+    @Order(4)
+    void image_matchesBroker() {
+        // given a broker image of the Confluent Platform
+        // then the schema registry image has the same version
+        assertEquals("confluentinc/cp-schema-registry:7.3.5", LocalKafkaSchemaRegistry.imageFor(
+                DockerImageName.parse("confluentinc/cp-kafka:7.3.5")).asCanonicalNameString());
+        // and any other broker image falls back to the default
+        assertEquals(LocalKafkaSchemaRegistry.DEFAULT_IMAGE, LocalKafkaSchemaRegistry.imageFor(
+                DockerImageName.parse("apache/kafka:3.7.0")).asCanonicalNameString());
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainerRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedKafkaContainerConfigTest {
+
+    @Test
+    void container_sharedUntilLastContextCloses() {
+        // given the 'shared' profile is active
+        final var registry = LocalKafkaContainerRegistry.getInstance();
+        final var hits = registry.getHits();
+        final var misses = registry.getMisses();
+        // when an application context is started
+        final var first = start("shared-first", "spring.local.kafka.loadgen.rate=100");
+        final ConfigurableApplicationContext second;
+        try {
+            // then a container is started for it
+            assertEquals(misses + 1, registry.getMisses());
+            final var container = first.getBean(LocalKafkaContainer.class);
+            assertTrue(container.isShared());
+            assertTrue(container.isRunning());
+            // when a second application context is started, whose configuration
+            // differs only in properties of the clients of the broker
+            second = start("shared-second",
+                    "spring.local.kafka.loadgen.rate=200",
+                    "spring.local.kafka.reset.timeout=10s");
+            // then it is attached to the same container
+            assertSame(container, second.getBean(LocalKafkaContainer.class));
+            assertEquals(hits + 1, registry.getHits());
+            assertEquals(misses + 1, registry.getMisses());
+        } finally {
+            // when the first application context closes
+            first.close();
+        }
+        final var container = second.getBean(LocalKafkaContainer.class);
+        try {
+            // then the container keeps running for the second
+            assertTrue(container.isRunning());
+        } finally {
+            // when the second, and last, application context closes
+            second.close();
+        }
+        // then the container is stopped
+        assertFalse(container.isRunning());
+    }
+
+    private static ConfigurableApplicationContext start(final String database, final String... properties) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .profiles("shared")
+                // a database of its own, since both Application Contexts run at once
+                .properties("spring.datasource.url=jdbc:h2:mem:" + database)
+                .properties(properties)
+                .run();
+    }
+}
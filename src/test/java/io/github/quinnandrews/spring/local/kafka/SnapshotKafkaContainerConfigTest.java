@@ -0,0 +1,72 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotKafkaContainerConfigTest {
+
+    @Test
+    void snapshot_takenOnceAndRestoredDespiteClientChanges() {
+        // given the 'snapshot' profile is active
+        // when an application context is started
+        final String snapshotImage;
+        try (final var first = start("spring.local.kafka.loadgen.rate=100")) {
+            // then its container has a snapshot, whether it was taken by this run or an earlier one
+            final var snapshot = first.getBean(LocalKafkaContainer.class).getSnapshot();
+            assertNotNull(snapshot);
+            snapshotImage = snapshot.getImage().asCanonicalNameString();
+            assertTrue(snapshotImage.startsWith(LocalKafkaSnapshot.REPOSITORY_PREFIX));
+        }
+        // when another application context is started, whose configuration differs only
+        // in properties that are not baked into the snapshot
+        try (final var second = start(
+                "spring.local.kafka.loadgen.rate=200",
+                "spring.local.kafka.container.resources.cpus=2.0")) {
+            final var container = second.getBean(LocalKafkaContainer.class);
+            // then it starts from the same snapshot rather than taking a new one
+            assertEquals(snapshotImage, container.getSnapshot().getImage().asCanonicalNameString());
+            assertTrue(container.getSnapshot().isPresent());
+            assertEquals(snapshotImage, container.getDockerImageName());
+        }
+    }
+
+    @Test
+    void snapshot_jvmOptionsNotInheritedByOtherConfigurations() {
+        // given the 'snapshot' profile is active
+        // when an application context is started with JVM options
+        final String snapshotImage;
+        try (final var first = start("spring.local.kafka.broker.heap-opts=-Xms320m -Xmx320m")) {
+            final var container = first.getBean(LocalKafkaContainer.class);
+            snapshotImage = container.getSnapshot().getImage().asCanonicalNameString();
+            // then its broker runs with those options
+            assertTrue(List.of(container.getContainerInfo().getConfig().getEnv())
+                    .contains("KAFKA_HEAP_OPTS=-Xms320m -Xmx320m"));
+        }
+        // when another application context is started without them
+        try (final var second = start()) {
+            final var container = second.getBean(LocalKafkaContainer.class);
+            // then it does not start from the snapshot taken with them
+            assertNotEquals(snapshotImage, container.getSnapshot().getImage().asCanonicalNameString());
+            // and its broker does not inherit them
+            assertTrue(List.of(container.getContainerInfo().getConfig().getEnv()).stream()
+                    .noneMatch(env -> env.startsWith("KAFKA_HEAP_OPTS=")));
+        }
+    }
+
+    private static ConfigurableApplicationContext start(final String... properties) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .profiles("snapshot")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("tmpfs")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class TmpfsKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Test
+    @Order(1)
+    void container_initialized() {
+        // given the application is initialized
+        // and the 'tmpfs' profile is active
+        // then the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+    }
+
+    @Test
+    @Order(2)
+    void dataDirectories_inMemory() {
+        // given the application is initialized
+        // and the 'tmpfs' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        // then the data directories of Kafka and ZooKeeper are mounted as tmpfs of the configured size
+        final var tmpFs = kafkaContainer.getContainerInfo().getHostConfig().getTmpFs();
+        assertNotNull(tmpFs);
+        final var options = "rw,mode=1777,size=" + 256L * 1024 * 1024;
+        assertEquals(options, tmpFs.get("/var/lib/kafka/data"));
+        assertEquals(options, tmpFs.get("/var/lib/zookeeper/data"));
+        assertEquals(options, tmpFs.get("/var/lib/zookeeper/log"));
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.quinnandrews.spring.local.kafka;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.application.config.KafkaConfig;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.common.config.ConfigResource;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext
+@ActiveProfiles("topics")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(classes = Application.class)
+public class TopicsKafkaContainerConfigTest {
+
+    @Autowired(required = false)
+    private LocalKafkaContainer kafkaContainer;
+
+    @Test
+    @Order(1)
+    void container_initialized() {
+        // given the application is initialized
+        // and the 'topics' profile is active
+        // then the container is initialized
+        assertNotNull(kafkaContainer);
+        assertTrue(kafkaContainer.isRunning());
+    }
+
+    @Test
+    @Order(2)
+    void topics_provisioned() throws Exception {
+        // given the application is initialized
+        // and the 'topics' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        try (final var admin = admin()) {
+            // then the configured topic was created with the configured partitions
+            final var description = admin.describeTopics(List.of(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC))
+                    .allTopicNames().get()
+                    .get(KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC);
+            assertEquals(3, description.partitions().size());
+            // and every partition has a leader
+            assertTrue(description.partitions().stream().allMatch(p -> p.leader() != null));
+        }
+    }
+
+    @Test
+    @Order(3)
+    void topicConfigs_applied() throws Exception {
+        // given the application is initialized
+        // and the 'topics' profile is active
+        // and the container is initialized
+        assertNotNull(kafkaContainer);
+        try (final var admin = admin()) {
+            // then the configured topic was created with the configured configs
+            final var resource = new ConfigResource(ConfigResource.Type.TOPIC, "pedal-inventory");
+            final var config = admin.describeConfigs(List.of(resource)).all().get().get(resource);
+            assertEquals("compact", config.get("cleanup.policy").value());
+        }
+    }
+
+    private Admin admin() {
+        return Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers()));
+    }
+}
@@ -7,6 +7,7 @@ import org.apache.kafka.common.serialization.*;
 import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
 import org.springframework.context.annotation.*;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
@@ -25,14 +26,18 @@ public class KafkaConfig {
     public static final String PEDAL_PURCHASED_ON_REVERB_TOPIC = "pedal-purchased-on-reverb";
 
     private final KafkaContainer kafkaContainer;
+    private final KafkaConnectionDetails kafkaConnectionDetails;
     private final String bootstrapServers;
 
     @Autowired
     public KafkaConfig(@Nullable
                        final KafkaContainer kafkaContainer,
+                       @Nullable
+                       final KafkaConnectionDetails kafkaConnectionDetails,
                        @Value("${spring.kafka.bootstrap-servers:#{null}}")
                        final String bootstrapServers) {
         this.kafkaContainer = kafkaContainer;
+        this.kafkaConnectionDetails = kafkaConnectionDetails;
         this.bootstrapServers = bootstrapServers;
     }
 
@@ -78,6 +83,10 @@ public class KafkaConfig {
         if (optionalContainer.isPresent()) {
             return optionalContainer.get().getBootstrapServers();
         }
+        final var optionalConnectionDetails = Optional.ofNullable(kafkaConnectionDetails);
+        if (optionalConnectionDetails.isPresent()) {
+            return String.join(",", optionalConnectionDetails.get().getBootstrapServers());
+        }
         return bootstrapServers;
     }
 }
@@ -2,6 +2,7 @@ package io.github.quinnandrews.spring.local.kafka.application.web.guitarpedals;
 
 import io.github.quinnandrews.spring.local.kafka.application.config.KafkaConfig;
 import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.publish.LocalKafkaPublisher;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -19,10 +21,12 @@ public class GuitarPedalProducer {
     private static final Logger logger = LoggerFactory.getLogger(GuitarPedalProducer.class);
 
     private final KafkaTemplate<Long, GuitarPedal> kafkaTemplate;
+    private final LocalKafkaPublisher<Long, GuitarPedal> publisher;
 
     @Autowired
     public GuitarPedalProducer(final KafkaTemplate<Long, GuitarPedal> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
+        this.publisher = new LocalKafkaPublisher<>(kafkaTemplate);
     }
 
     public void guitarPedalPurchased(final GuitarPedal guitarPedal) {
@@ -41,4 +45,23 @@ public class GuitarPedalProducer {
             throw new GuitarPedalProducerException("Could not produce Record.", e);
         }
     }
+
+    public void guitarPedalsPurchased(final Collection<GuitarPedal> guitarPedals) {
+        final var records = guitarPedals.stream()
+                .map(guitarPedal -> new ProducerRecord<>(
+                        KafkaConfig.PEDAL_PURCHASED_ON_REVERB_TOPIC,
+                        guitarPedal.getId(),
+                        guitarPedal
+                ))
+                .toList();
+        try {
+            publisher.publishAll(records).get(10, TimeUnit.SECONDS);
+        } catch (final ExecutionException e) {
+            logger.error("Error: ", e.getCause());
+            throw new GuitarPedalProducerException("Could not produce Records.", e);
+        } catch (final TimeoutException | InterruptedException e) {
+            logger.error("Error: ", e);
+            throw new GuitarPedalProducerException("Could not produce Records.", e);
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package io.github.quinnandrews.spring.local.kafka.benchmark;
+
+import io.github.quinnandrews.spring.local.kafka.config.EnableLocalKafka;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+
+/**
+ * Starts nothing but the local broker, so that benchmarks measure Kafka
+ * rather than the test Application.
+ */
+@EnableLocalKafka
+@EnableAutoConfiguration
+@SpringBootConfiguration
+public class BenchmarkApplication {
+}
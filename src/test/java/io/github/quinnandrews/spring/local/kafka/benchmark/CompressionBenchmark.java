@@ -0,0 +1,299 @@
+package io.github.quinnandrews.spring.local.kafka.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.quinnandrews.spring.local.kafka.application.data.guitarpedals.GuitarPedal;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.reflect.RecordComponent;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Measures what each combination of compression codec, batch size and linger
+ * costs and saves when producing to the local broker: the CPU time of the
+ * producer, the bytes it sends over the wire, the bytes the broker keeps on
+ * disk and the throughput, and writes the results to {@code target/benchmarks}
+ * as JSON and CSV. Record values are JSON-serialized {@link GuitarPedal}s, so
+ * that codecs are compared on the kind of data the application produces
+ * rather than on random, incompressible bytes.
+ *
+ * <p> CPU time is that of the sending thread and of the network thread of the
+ * producer only, so that it excludes the broker even with the embedded
+ * runtime.
+ *
+ * <p> Not run by the default build. Run with {@code mvn test -Pbenchmark}.
+ */
+@DirtiesContext
+@SpringBootTest(classes = BenchmarkApplication.class)
+public class CompressionBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionBenchmark.class);
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private static final List<String> PEDAL_NAMES = List.of(
+            "Big Muff Pi", "Tube Screamer TS808", "Klon Centaur", "Rat 2", "Blues Driver BD-2",
+            "Memory Man", "Small Clone", "Holy Grail Reverb", "DD-3 Digital Delay", "Fuzz Face");
+
+    @Autowired
+    private KafkaConnectionDetails kafkaConnectionDetails;
+
+    @Autowired
+    private ObjectProvider<LocalKafkaContainer> kafkaContainer;
+
+    @Value("${spring.local.kafka.runtime:container}")
+    private String runtime;
+
+    @Value("${benchmark.records:200000}")
+    private int records;
+
+    @Value("${benchmark.warmup-records:20000}")
+    private int warmupRecords;
+
+    @Value("${benchmark.batch-sizes:16384,131072}")
+    private int[] batchSizes;
+
+    @Value("${benchmark.linger-ms:0,5,20}")
+    private int[] lingerMs;
+
+    @Value("${benchmark.compression-types:none,gzip,snappy,lz4,zstd}")
+    private String[] compressionTypes;
+
+    @Value("${benchmark.acks:all}")
+    private String ack;
+
+    @Value("${benchmark.partitions:1}")
+    private int partitions;
+
+    record Result(String runtime,
+                  String image,
+                  String mode,
+                  int brokers,
+                  String compressionType,
+                  int batchSize,
+                  int lingerMs,
+                  String acks,
+                  int partitions,
+                  int records,
+                  long payloadBytes,
+                  double recordsPerSecond,
+                  double payloadMegabytesPerSecond,
+                  double producerCpuMillis,
+                  double producerCpuMicrosPerRecord,
+                  long wireBytes,
+                  long brokerDiskBytes,
+                  double compressionRatio,
+                  double averageBatchBytes) {
+    }
+
+    private record Snapshot(long cpuNanos, long wireBytes, long diskBytes) {
+    }
+
+    @Test
+    void benchmark() throws Exception {
+        final var mapper = new ObjectMapper();
+        final var warmupValues = values(mapper, 0, warmupRecords);
+        final var values = values(mapper, warmupRecords, records);
+        final var results = new ArrayList<Result>();
+        var run = 0;
+        for (final var batchSize : batchSizes) {
+            for (final var linger : lingerMs) {
+                for (final var compressionType : compressionTypes) {
+                    results.add(run("compression-benchmark-" + run++, batchSize, linger, compressionType,
+                            warmupValues, values));
+                }
+            }
+        }
+        assertFalse(results.isEmpty());
+        write(results);
+    }
+
+    private Result run(final String topic,
+                       final int batchSize,
+                       final int linger,
+                       final String compressionType,
+                       final byte[][] warmupValues,
+                       final byte[][] values) throws Exception {
+        final var bootstrapServers = String.join(",", kafkaConnectionDetails.getBootstrapServers());
+        try (final var admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            admin.createTopics(List.of(new NewTopic(topic, Optional.of(partitions), Optional.empty())))
+                    .all().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            final Result result;
+            try (final var producer = new KafkaProducer<byte[], byte[]>(Map.of(
+                    ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                    ProducerConfig.CLIENT_ID_CONFIG, topic,
+                    ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                    ProducerConfig.LINGER_MS_CONFIG, linger,
+                    ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                    ProducerConfig.ACKS_CONFIG, ack),
+                    new ByteArraySerializer(), new ByteArraySerializer())) {
+                // wait for the leaders of the new Topic, and warm up the codec, before the clock starts
+                producer.partitionsFor(topic);
+                send(producer, topic, warmupValues);
+                final var before = snapshot(admin, producer, topic);
+                final var begin = System.nanoTime();
+                send(producer, topic, values);
+                final var elapsedSeconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+                // read before close, which ends the network thread and its CPU time
+                final var after = snapshot(admin, producer, topic);
+                final var payloadBytes = Arrays.stream(values).mapToLong(value -> value.length).sum();
+                final var cpuNanos = after.cpuNanos() - before.cpuNanos();
+                final var diskBytes = after.diskBytes() - before.diskBytes();
+                final var container = kafkaContainer.getIfAvailable();
+                result = new Result(runtime,
+                        Optional.ofNullable(container).map(LocalKafkaContainer::getDockerImageName).orElse(null),
+                        Optional.ofNullable(container).map(c -> c.getMode().name().toLowerCase()).orElse("kraft"),
+                        kafkaConnectionDetails.getBootstrapServers().size(),
+                        compressionType,
+                        batchSize,
+                        linger,
+                        ack,
+                        partitions,
+                        values.length,
+                        payloadBytes,
+                        values.length / elapsedSeconds,
+                        payloadBytes / elapsedSeconds / 1_000_000.0,
+                        cpuNanos / 1_000_000.0,
+                        cpuNanos / 1_000.0 / values.length,
+                        after.wireBytes() - before.wireBytes(),
+                        diskBytes,
+                        diskBytes > 0 ? (double) payloadBytes / diskBytes : 0.0,
+                        metric(producer, "batch-size-avg"));
+            }
+            admin.deleteTopics(List.of(topic)).all().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            return result;
+        }
+    }
+
+    private static byte[][] values(final ObjectMapper mapper, final int first, final int count) throws IOException {
+        final var random = ThreadLocalRandom.current();
+        final var values = new byte[count][];
+        for (var i = 0; i < count; i++) {
+            values[i] = mapper.writeValueAsBytes(new GuitarPedal()
+                    .withId((long) first + i)
+                    .withName(PEDAL_NAMES.get(random.nextInt(PEDAL_NAMES.size())) + " #" + random.nextInt(10_000)));
+        }
+        return values;
+    }
+
+    private static void send(final KafkaProducer<byte[], byte[]> producer,
+                             final String topic,
+                             final byte[][] values) {
+        for (final var value : values) {
+            producer.send(new ProducerRecord<>(topic, value));
+        }
+        producer.flush();
+    }
+
+    private static Snapshot snapshot(final Admin admin,
+                                     final KafkaProducer<byte[], byte[]> producer,
+                                     final String topic) throws Exception {
+        return new Snapshot(cpuNanos(topic),
+                (long) metric(producer, "outgoing-byte-total"),
+                diskBytes(admin, topic));
+    }
+
+    private static long cpuNanos(final String clientId) {
+        // the calling thread, which serializes, appends and compresses records,
+        // and the network thread of the producer, which sends them
+        final var threads = ManagementFactory.getThreadMXBean();
+        final var networkThreads = Arrays.stream(threads.getThreadInfo(threads.getAllThreadIds()))
+                .filter(Objects::nonNull)
+                .filter(info -> info.getThreadName().endsWith("| " + clientId))
+                .mapToLong(ThreadInfo::getThreadId);
+        return Stream.concat(Stream.of(Thread.currentThread().getId()), networkThreads.boxed())
+                .mapToLong(threads::getThreadCpuTime)
+                .filter(nanos -> nanos > 0)
+                .sum();
+    }
+
+    private static double metric(final KafkaProducer<byte[], byte[]> producer, final String name) {
+        return producer.metrics().entrySet().stream()
+                .filter(entry -> entry.getKey().group().equals("producer-metrics"))
+                .filter(entry -> entry.getKey().name().equals(name))
+                .map(entry -> entry.getValue().metricValue())
+                .filter(Number.class::isInstance)
+                .mapToDouble(value -> ((Number) value).doubleValue())
+                .findFirst()
+                .orElse(0.0);
+    }
+
+    private static long diskBytes(final Admin admin, final String topic) throws Exception {
+        final var brokerIds = admin.describeCluster().nodes()
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).stream()
+                .map(Node::id)
+                .toList();
+        return admin.describeLogDirs(brokerIds).allDescriptions()
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .values().stream()
+                .flatMap(logDirs -> logDirs.values().stream())
+                .flatMap(logDir -> logDir.replicaInfos().entrySet().stream())
+                .filter(replica -> replica.getKey().topic().equals(topic))
+                .mapToLong(replica -> replica.getValue().size())
+                .sum();
+    }
+
+    private static void write(final List<Result> results) throws IOException {
+        final var directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+        final var name = "compression-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        final var json = directory.resolve(name + ".json");
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(json.toFile(), results);
+        final var components = Result.class.getRecordComponents();
+        final var lines = new ArrayList<String>();
+        lines.add(Arrays.stream(components).map(RecordComponent::getName).collect(Collectors.joining(",")));
+        for (final var result : results) {
+            lines.add(Arrays.stream(components)
+                    .map(component -> {
+                        try {
+                            return Objects.toString(component.getAccessor().invoke(result), "");
+                        } catch (final ReflectiveOperationException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .collect(Collectors.joining(",")));
+        }
+        final var csv = directory.resolve(name + ".csv");
+        Files.write(csv, lines);
+        logger.info("Wrote {} benchmark result(s) to {} and {}.",
+                results.size(), json.toAbsolutePath(), csv.toAbsolutePath());
+    }
+}
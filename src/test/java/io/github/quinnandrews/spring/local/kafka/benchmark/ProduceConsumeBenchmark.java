@@ -0,0 +1,263 @@
+package io.github.quinnandrews.spring.local.kafka.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.quinnandrews.spring.local.kafka.container.LocalKafkaContainer;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Measures end-to-end latency and throughput of producing records to, and
+ * consuming them from, the local broker, for every combination of batch size,
+ * linger, compression, acks and partition count, and writes the results to
+ * {@code target/benchmarks} as JSON. Records are sent as fast as possible,
+ * which measures latency at saturation, unless a target rate is set.
+ *
+ * <p> Not run by the default build. Run with {@code mvn test -Pbenchmark}.
+ */
+@DirtiesContext
+@SpringBootTest(classes = BenchmarkApplication.class)
+public class ProduceConsumeBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProduceConsumeBenchmark.class);
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    @Autowired
+    private KafkaConnectionDetails kafkaConnectionDetails;
+
+    @Autowired
+    private ObjectProvider<LocalKafkaContainer> kafkaContainer;
+
+    @Value("${spring.local.kafka.runtime:container}")
+    private String runtime;
+
+    @Value("${benchmark.records:20000}")
+    private int records;
+
+    @Value("${benchmark.warmup-records:2000}")
+    private int warmupRecords;
+
+    @Value("${benchmark.rate:0}")
+    private int rate;
+
+    @Value("${benchmark.record-size:100}")
+    private int recordSize;
+
+    @Value("${benchmark.batch-sizes:16384,131072}")
+    private int[] batchSizes;
+
+    @Value("${benchmark.linger-ms:0,5}")
+    private int[] lingerMs;
+
+    @Value("${benchmark.compression-types:none,lz4}")
+    private String[] compressionTypes;
+
+    @Value("${benchmark.acks:1,all}")
+    private String[] acks;
+
+    @Value("${benchmark.partitions:1,6}")
+    private int[] partitions;
+
+    record Result(String runtime,
+                  String image,
+                  String mode,
+                  int brokers,
+                  int batchSize,
+                  int lingerMs,
+                  String compressionType,
+                  String acks,
+                  int partitions,
+                  int records,
+                  int recordSize,
+                  int targetRate,
+                  double recordsPerSecond,
+                  double p50Millis,
+                  double p99Millis,
+                  double maxMillis) {
+    }
+
+    @Test
+    void benchmark() throws Exception {
+        final var results = new ArrayList<Result>();
+        var run = 0;
+        for (final var p : partitions) {
+            for (final var batchSize : batchSizes) {
+                for (final var linger : lingerMs) {
+                    for (final var compressionType : compressionTypes) {
+                        for (final var ack : acks) {
+                            results.add(run("benchmark-" + run++, p, batchSize, linger, compressionType, ack));
+                        }
+                    }
+                }
+            }
+        }
+        assertFalse(results.isEmpty());
+        write(results);
+    }
+
+    private Result run(final String topic,
+                       final int partitionCount,
+                       final int batchSize,
+                       final int linger,
+                       final String compressionType,
+                       final String ack) throws Exception {
+        final var bootstrapServers = String.join(",", kafkaConnectionDetails.getBootstrapServers());
+        try (final var admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            admin.createTopics(List.of(new NewTopic(topic, Optional.of(partitionCount), Optional.empty())))
+                    .all().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        final var total = warmupRecords + records;
+        final var latencies = new long[records];
+        final var assigned = new CompletableFuture<Void>();
+        final var consumed = CompletableFuture.supplyAsync(() ->
+                consume(bootstrapServers, topic, partitionCount, total, latencies, assigned));
+        assigned.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        final long begin;
+        try (final var producer = new KafkaProducer<byte[], byte[]>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                ProducerConfig.LINGER_MS_CONFIG, linger,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                ProducerConfig.ACKS_CONFIG, ack),
+                new ByteArraySerializer(), new ByteArraySerializer())) {
+            // wait for the leaders of the new Topic before the clock starts
+            producer.partitionsFor(topic);
+            final var interval = rate > 0 ? 1_000_000_000L / rate : 0L;
+            final var sendBegin = System.nanoTime();
+            var measuredBegin = 0L;
+            for (var i = 0; i < total; i++) {
+                if (interval > 0) {
+                    // paced, so that latency is measured below saturation
+                    LockSupport.parkNanos(sendBegin + i * interval - System.nanoTime());
+                }
+                final var now = System.nanoTime();
+                if (i == warmupRecords) {
+                    measuredBegin = now;
+                }
+                final var value = ByteBuffer.allocate(Math.max(recordSize, Long.BYTES * 2))
+                        .putLong(now)
+                        .putLong(i)
+                        .array();
+                producer.send(new ProducerRecord<>(topic, value));
+            }
+            producer.flush();
+            begin = measuredBegin;
+        }
+        final var end = consumed.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        Arrays.sort(latencies);
+        final var container = kafkaContainer.getIfAvailable();
+        return new Result(runtime,
+                Optional.ofNullable(container).map(LocalKafkaContainer::getDockerImageName).orElse(null),
+                Optional.ofNullable(container).map(c -> c.getMode().name().toLowerCase()).orElse("kraft"),
+                kafkaConnectionDetails.getBootstrapServers().size(),
+                batchSize,
+                linger,
+                compressionType,
+                ack,
+                partitionCount,
+                records,
+                recordSize,
+                rate,
+                records / ((end - begin) / 1_000_000_000.0),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1_000_000.0);
+    }
+
+    private static long consume(final String bootstrapServers,
+                                final String topic,
+                                final int partitionCount,
+                                final int total,
+                                final long[] latencies,
+                                final CompletableFuture<Void> assigned) {
+        try (final var consumer = new KafkaConsumer<byte[], byte[]>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false),
+                new ByteArrayDeserializer(), new ByteArrayDeserializer())) {
+            // assigned rather than subscribed, so that no rebalance is measured
+            final var topicPartitions = IntStream.range(0, partitionCount)
+                    .mapToObj(partition -> new TopicPartition(topic, partition))
+                    .toList();
+            consumer.assign(topicPartitions);
+            // look up the starting offsets before the first record is sent
+            topicPartitions.forEach(consumer::position);
+            assigned.complete(null);
+            final var warmupRecords = total - latencies.length;
+            final var deadline = Instant.now().plus(TIMEOUT);
+            var received = 0;
+            var last = 0L;
+            while (received < total && Instant.now().isBefore(deadline)) {
+                for (final var record : consumer.poll(Duration.ofMillis(100))) {
+                    last = System.nanoTime();
+                    final var value = ByteBuffer.wrap(record.value());
+                    final var sent = value.getLong();
+                    final var index = (int) value.getLong();
+                    if (index >= warmupRecords) {
+                        latencies[index - warmupRecords] = last - sent;
+                    }
+                    received++;
+                }
+            }
+            if (received < total) {
+                throw new IllegalStateException("Consumed only " + received + " of " + total + " records from " + topic + ".");
+            }
+            return last;
+        }
+    }
+
+    private static double percentile(final long[] sorted, final double percentile) {
+        final var index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static void write(final List<Result> results) throws IOException {
+        final var directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+        final var file = directory.resolve("produce-consume-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), results);
+        logger.info("Wrote {} benchmark result(s) to {}.", results.size(), file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.quinnandrews.spring.local.kafka.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.quinnandrews.spring.local.kafka.publish.LocalKafkaPublisher;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Measures the throughput of publishing records one at a time, waiting for
+ * each to be acknowledged with {@code kafkaTemplate.send(record).get()}, as
+ * {@code GuitarPedalProducer} does, against publishing the same records as
+ * pipelined batches through a {@link LocalKafkaPublisher}, and writes the
+ * results to {@code target/benchmarks} as JSON.
+ *
+ * <p> Not run by the default build. Run with {@code mvn test -Pbenchmark}.
+ */
+@DirtiesContext
+@SpringBootTest(classes = BenchmarkApplication.class)
+public class PublisherBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublisherBenchmark.class);
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    @Autowired
+    private KafkaConnectionDetails kafkaConnectionDetails;
+
+    @Value("${spring.local.kafka.runtime:container}")
+    private String runtime;
+
+    @Value("${benchmark.records:20000}")
+    private int records;
+
+    @Value("${benchmark.warmup-records:2000}")
+    private int warmupRecords;
+
+    @Value("${benchmark.record-size:100}")
+    private int recordSize;
+
+    @Value("${benchmark.publisher.batch-sizes:100,1000,10000}")
+    private int[] batchSizes;
+
+    @Value("${benchmark.publisher.max-in-flight:10000}")
+    private int maxInFlight;
+
+    record Result(String runtime,
+                  String mode,
+                  int batchSize,
+                  int maxInFlight,
+                  int records,
+                  int recordSize,
+                  double seconds,
+                  double recordsPerSecond) {
+    }
+
+    @Test
+    void benchmark() throws Exception {
+        final var bootstrapServers = String.join(",", kafkaConnectionDetails.getBootstrapServers());
+        final var topic = "publisher-benchmark";
+        try (final var admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            admin.createTopics(List.of(new NewTopic(topic, Optional.empty(), Optional.empty())))
+                    .all().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        final var producerFactory = new DefaultKafkaProducerFactory<byte[], byte[]>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers),
+                new ByteArraySerializer(), new ByteArraySerializer());
+        final var kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        final var value = new byte[recordSize];
+        ThreadLocalRandom.current().nextBytes(value);
+        final var record = new ProducerRecord<byte[], byte[]>(topic, value);
+        final var results = new ArrayList<Result>();
+        try {
+            // warm up the producer and the broker once, before any clock starts
+            for (var i = 0; i < warmupRecords; i++) {
+                kafkaTemplate.send(record).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            final var blockingBegin = System.nanoTime();
+            for (var i = 0; i < records; i++) {
+                kafkaTemplate.send(record).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            results.add(result("blocking", 1, 1, System.nanoTime() - blockingBegin));
+            for (final var batchSize : batchSizes) {
+                final var publisher = new LocalKafkaPublisher<>(kafkaTemplate).withMaxInFlight(maxInFlight);
+                final var batch = IntStream.range(0, batchSize).mapToObj(i -> record).toList();
+                final var begin = System.nanoTime();
+                for (var sent = 0; sent < records; sent += batchSize) {
+                    publisher.publishAll(batch.subList(0, Math.min(batchSize, records - sent)))
+                            .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                results.add(result("pipelined", batchSize, maxInFlight, System.nanoTime() - begin));
+            }
+        } finally {
+            producerFactory.destroy();
+        }
+        assertFalse(results.isEmpty());
+        write(results);
+    }
+
+    private Result result(final String mode, final int batchSize, final int maxInFlight, final long nanos) {
+        final var seconds = nanos / 1_000_000_000.0;
+        return new Result(runtime, mode, batchSize, maxInFlight, records, recordSize, seconds, records / seconds);
+    }
+
+    private static void write(final List<Result> results) throws IOException {
+        final var directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+        final var file = directory.resolve("publisher-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), results);
+        logger.info("Wrote {} benchmark result(s) to {}.", results.size(), file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import io.github.quinnandrews.spring.local.kafka.application.Application;
+import io.github.quinnandrews.spring.local.kafka.config.KafkaImagePrePullRegistrar;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.SimpleBeanDefinitionRegistry;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.mock.env.MockEnvironment;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KafkaImagePrePullRegistrarTest {
+
+    @Test
+    void prePull_disabledByDefault() {
+        // given an image that has not been pulled
+        final var image = "confluentinc/cp-kafka:7.4.0-pre-pull-default";
+        // when the registrar is processed without enabling pre-pull
+        register(new MockEnvironment()
+                .withProperty("spring.local.kafka.container.image", image));
+        // then no pull is started in the background
+        assertNull(LocalKafkaImagePuller.getPull(DockerImageName.parse(image)));
+    }
+
+    @Test
+    void prePull_startedWhenEnabled() {
+        // given an image that has not been pulled
+        final var image = "confluentinc/cp-kafka:7.4.0-pre-pull-enabled";
+        // when the registrar is processed with pre-pull enabled
+        register(new MockEnvironment()
+                .withProperty("spring.local.kafka.container.image", image)
+                .withProperty("spring.local.kafka.container.pre-pull-image", "true"));
+        // then a pull is started in the background
+        assertNotNull(LocalKafkaImagePuller.getPull(DockerImageName.parse(image)));
+    }
+
+    @Test
+    void prePull_skippedWhenDisengaged() {
+        // given an image that has not been pulled
+        final var image = "confluentinc/cp-kafka:7.4.0-pre-pull-disengaged";
+        // when the registrar is processed with pre-pull enabled, but Local Kafka disengaged
+        register(new MockEnvironment()
+                .withProperty("spring.local.kafka.engaged", "false")
+                .withProperty("spring.local.kafka.container.image", image)
+                .withProperty("spring.local.kafka.container.pre-pull-image", "true"));
+        // then no pull is started in the background
+        assertNull(LocalKafkaImagePuller.getPull(DockerImageName.parse(image)));
+    }
+
+    @Test
+    void prePull_snapshotLookedUpInBackground() {
+        // given an image that has not been pulled
+        final var image = "confluentinc/cp-kafka:7.4.0-pre-pull-snapshot";
+        // when the registrar is processed with pre-pull and snapshots enabled
+        register(new MockEnvironment()
+                .withProperty("spring.local.kafka.container.image", image)
+                .withProperty("spring.local.kafka.container.pre-pull-image", "true")
+                .withProperty("spring.local.kafka.container.snapshot.enabled", "true"));
+        // then it returns without connecting to Docker, which may not even be running,
+        // and the snapshot is looked up, and the image pulled, in the background
+        assertNotNull(LocalKafkaImagePuller.getPull(DockerImageName.parse(image)));
+    }
+
+    @Test
+    void pullInBackground_skippedWhenSnapshotPresent() {
+        // given a snapshot of an image that has not been pulled
+        final var image = DockerImageName.parse("confluentinc/cp-kafka:7.4.0-pre-pull-snapshot-present");
+        final var snapshotImage = LocalKafkaSnapshot.of(image, "pre-pull").getImage();
+        final var client = DockerClientFactory.instance().client();
+        // (an empty archive imports as an Image without layers)
+        client.createImageCmd(snapshotImage.getUnversionedPart(), new ByteArrayInputStream(new byte[1024]))
+                .withTag(snapshotImage.getVersionPart())
+                .exec();
+        try {
+            // when the image is pulled in the background
+            // then the pull is skipped, since the snapshot starts instead of the image
+            assertNull(LocalKafkaImagePuller.pullInBackground(image, "pre-pull").join());
+        } finally {
+            client.removeImageCmd(snapshotImage.asCanonicalNameString()).withForce(true).exec();
+        }
+    }
+
+    private static void register(final MockEnvironment environment) {
+        final var registrar = new KafkaImagePrePullRegistrar();
+        registrar.setEnvironment(environment);
+        registrar.registerBeanDefinitions(AnnotationMetadata.introspect(Application.class),
+                new SimpleBeanDefinitionRegistry());
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.quinnandrews.spring.local.kafka.container;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LocalKafkaContainerRegistryTest {
+
+    @Test
+    void acquire_blocksOnlyCallersWithTheSameKey() throws Exception {
+        // given a container with one configuration that is slow to start
+        final var registry = LocalKafkaContainerRegistry.getInstance();
+        final var slowKey = UUID.randomUUID().toString();
+        final var starting = new CountDownLatch(1);
+        final var proceed = new CountDownLatch(1);
+        final var slow = container(slowKey);
+        doAnswer(invocation -> {
+            starting.countDown();
+            proceed.await();
+            return null;
+        }).when(slow).start();
+        final var first = CompletableFuture.supplyAsync(() -> registry.acquire(slowKey, () -> slow));
+        assertTrue(starting.await(10, TimeUnit.SECONDS));
+        // and another caller waiting for the same configuration
+        final var second = CompletableFuture.supplyAsync(() -> registry.acquire(slowKey, () -> {
+            throw new AssertionError("The container of this key is already starting.");
+        }));
+        try {
+            // when a container with another configuration is acquired meanwhile
+            final var otherKey = UUID.randomUUID().toString();
+            final var other = container(otherKey);
+            final var acquired = CompletableFuture.supplyAsync(() -> registry.acquire(otherKey, () -> other));
+            // then it is started without waiting for the slow one
+            assertSame(other, acquired.get(10, TimeUnit.SECONDS));
+            assertTrue(registry.release(other));
+            // and the caller with the same configuration is still waiting
+            assertFalse(second.isDone());
+        } finally {
+            proceed.countDown();
+        }
+        // and once the slow container has started, both callers share it
+        assertSame(slow, first.get(10, TimeUnit.SECONDS));
+        assertSame(slow, second.get(10, TimeUnit.SECONDS));
+        assertFalse(registry.release(slow));
+        assertTrue(registry.release(slow));
+    }
+
+    @Test
+    void acquire_failedStartNotRegistered() {
+        // given a container that fails to start
+        final var registry = LocalKafkaContainerRegistry.getInstance();
+        final var key = UUID.randomUUID().toString();
+        final var failing = container(key);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Could not start.");
+        }).when(failing).start();
+        // when it is acquired
+        // then the failure is reported
+        assertThrows(IllegalStateException.class, () -> registry.acquire(key, () -> failing));
+        // and the next caller starts a container of its own
+        final var next = container(key);
+        assertSame(next, registry.acquire(key, () -> next));
+        assertTrue(registry.release(next));
+    }
+
+    private static LocalKafkaContainer container(final String key) {
+        final var container = mock(LocalKafkaContainer.class);
+        when(container.getRegistryKey()).thenReturn(key);
+        return container;
+    }
+}